@@ -6,6 +6,9 @@
  */
 package com.salesforce.einsteinbot.sdk.auth;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Interface to provide token used to authenticate with Einstein Bots.
  */
@@ -16,6 +19,29 @@ public interface AuthMechanism {
    */
   String getToken();
 
+  /**
+   * Returns token without blocking the subscribing thread, so that it can be used from reactive
+   * pipelines. Default implementation calls {@link #getToken()} on boundedElastic scheduler.
+   * Implementations that can retrieve token without blocking should override it.
+   *
+   * @return Mono emitting authentication token raw value
+   */
+  default Mono<String> getTokenAsync() {
+    return Mono.fromCallable(this::getToken)
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  /**
+   * Invalidates given token after it was rejected by Einstein Bots, so that a new token is used
+   * for following requests. Does nothing if given token is no longer the current token, so that
+   * concurrent requests rejected with the same token invalidate it only once. Default
+   * implementation does nothing.
+   *
+   * @param token Authentication token raw value that was rejected
+   */
+  default void invalidateToken(String token) {
+  }
+
   /**
    * @return Authentication value as expected by Authorization header ( eg. HTTP header containing
    * prefix like 'Bearer' )
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.auth;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * AuthMechanismRegistry - Provides {@link JwtBearerOAuth} per tenant, for services that talk to
+ * bots in many orgs or connected apps.
+ * <p>
+ * Tenants are registered with their builder. {@link #get} returns an AuthMechanism that resolves
+ * the tenant's {@link JwtBearerOAuth} through this registry on every call, so the registry is the
+ * only holder of JwtBearerOAuth instances. They are created on first use, and at most maximumSize
+ * of them, along with their tokens held in process memory, are kept live. Least recently used ones
+ * are closed when the limit is reached, and created again when used later. All of them send login
+ * and introspection requests using one shared WebClient.
+ */
+public class AuthMechanismRegistry implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(AuthMechanismRegistry.class);
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 100;
+
+  private final WebClient webClient;
+  private final Map<String, JwtBearerOAuth.FinalBuilder> tenants = new ConcurrentHashMap<>();
+  private final LoadingCache<String, JwtBearerOAuth> authMechanisms;
+  private final Map<String, AuthMechanism> tenantAuthMechanisms = new ConcurrentHashMap<>();
+
+  private AuthMechanismRegistry(WebClient webClient, long maximumSize) {
+    this.webClient = webClient;
+    this.authMechanisms = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .removalListener(AuthMechanismRegistry::closeRemoved)
+        .build(CacheLoader.from(tenantId -> tenants.get(tenantId).build()));
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Registers tenant, replacing earlier registration of same tenant.
+   *
+   * @param tenantId Identifies tenant, for eg. org id or connected app id.
+   * @param oAuthBuilder Builder with tenant configuration. It is copied, and the copy uses the
+   *                     shared WebClient. Builders not created by {@link JwtBearerOAuth#with()}
+   *                     can not be copied, so their WebClient is replaced.
+   */
+  public void register(String tenantId, JwtBearerOAuth.FinalBuilder oAuthBuilder) {
+    Objects.requireNonNull(tenantId);
+    JwtBearerOAuth.FinalBuilder tenantBuilder = oAuthBuilder instanceof JwtBearerOAuth.FluentBuilder
+        ? ((JwtBearerOAuth.FluentBuilder) oAuthBuilder).copy() : oAuthBuilder;
+    tenants.put(tenantId, tenantBuilder.webClient(webClient));
+    authMechanisms.invalidate(tenantId);
+  }
+
+  /**
+   * @return AuthMechanism of given tenant. It can be held by clients, since it resolves the live
+   * JwtBearerOAuth of tenant on every call.
+   * @throws IllegalArgumentException if tenant is not registered.
+   */
+  public AuthMechanism get(String tenantId) {
+    if (!tenants.containsKey(tenantId)) {
+      throw new IllegalArgumentException("Tenant is not registered: " + tenantId);
+    }
+    return tenantAuthMechanisms.computeIfAbsent(tenantId, TenantAuthMechanism::new);
+  }
+
+  @VisibleForTesting
+  long getLiveCount() {
+    authMechanisms.cleanUp();
+    return authMechanisms.size();
+  }
+
+  /**
+   * Retrieves tokens of all registered tenants in parallel, so that first requests of tenants do
+   * not wait for them. Failures are logged and do not fail pre-warming of other tenants.
+   * <p>
+   * Only as many tenants as maximumSize stay live, so pre-warming more than that evicts some.
+   *
+   * @return Future completed once all tenants are pre-warmed.
+   */
+  public CompletableFuture<Void> prewarm() {
+    return Flux.fromIterable(tenants.keySet())
+        .flatMap(tenantId -> Mono.defer(() -> get(tenantId).getTokenAsync())
+            .doOnError(error -> logger.warn("Failed to pre-warm token of tenant {}", tenantId,
+                error))
+            .onErrorResume(error -> Mono.empty()))
+        .then()
+        .toFuture();
+  }
+
+  /**
+   * Closes all live AuthMechanisms, stopping their background token refreshes.
+   */
+  @Override
+  public void close() {
+    authMechanisms.invalidateAll();
+  }
+
+  private static void closeRemoved(RemovalNotification<String, JwtBearerOAuth> notification) {
+    logger.debug("Closing AuthMechanism of tenant {}", notification.getKey());
+    notification.getValue().close();
+  }
+
+  /**
+   * AuthMechanism of a tenant, which delegates to its live JwtBearerOAuth.
+   */
+  private final class TenantAuthMechanism implements AuthMechanism {
+
+    private final String tenantId;
+
+    private TenantAuthMechanism(String tenantId) {
+      this.tenantId = tenantId;
+    }
+
+    private JwtBearerOAuth live() {
+      return authMechanisms.getUnchecked(tenantId);
+    }
+
+    @Override
+    public String getToken() {
+      return live().getToken();
+    }
+
+    @Override
+    public Mono<String> getTokenAsync() {
+      return Mono.defer(() -> live().getTokenAsync());
+    }
+
+    @Override
+    public void invalidateToken(String token) {
+      live().invalidateToken(token);
+    }
+
+    @Override
+    public String getAuthorizationHeader() {
+      return live().getAuthorizationHeader();
+    }
+  }
+
+  public static class Builder {
+
+    private WebClient webClient;
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * @param webClient WebClient shared for login and introspection requests of all tenants.
+     *                  Defaults to a WebClient with its own connector.
+     */
+    public Builder webClient(WebClient webClient) {
+      this.webClient = Objects.requireNonNull(webClient);
+      return this;
+    }
+
+    /**
+     * @param maximumSize Maximum number of live AuthMechanisms. Defaults to {@value
+     *                    #DEFAULT_MAXIMUM_SIZE}.
+     */
+    public Builder maximumSize(long maximumSize) {
+      if (maximumSize <= 0) {
+        throw new IllegalArgumentException("maximumSize should be positive");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public AuthMechanismRegistry build() {
+      // single connector, so that all tenants share its connection pool.
+      WebClient client = webClient != null ? webClient : WebClient.builder()
+          .clientConnector(new ReactorClientHttpConnector())
+          .build();
+      return new AuthMechanismRegistry(client, maximumSize);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.auth;
+
+/**
+ * IntrospectionMode - Controls how {@link JwtBearerOAuth} learns when a retrieved token expires.
+ */
+public enum IntrospectionMode {
+
+  /**
+   * Token is introspected before it is used, and expiry reported by introspection is used.
+   */
+  BLOCKING,
+
+  /**
+   * Token is used right away, with expiry derived from token response or configured token
+   * lifetime. Introspection runs in background and then corrects the expiry, or discards the
+   * token if it is not active.
+   */
+  ASYNC,
+
+  /**
+   * Token is never introspected. Expiry is derived from token response or configured token
+   * lifetime.
+   */
+  DISABLED
+}
@@ -1,4 +1,3 @@
-
 /*
  * Copyright (c) 2022, salesforce.com, inc.
  * All rights reserved.
@@ -8,43 +7,114 @@
 
 package com.salesforce.einsteinbot.sdk.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.Hashing;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import org.apache.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+/**
+ * Introspector - Calls OAuth introspection endpoint to know whether a token is active and when it
+ * expires. Results for active tokens are cached by token hash until the token expires, for at most
+ * 5 minutes, so the same token is not introspected again while result is fresh.
+ */
 public class Introspector {
 
-  private String connectedAppId;
-  private String connectedAppSecret;
-  private WebClient webClient;
+  private static final Duration RESULT_CACHE_TTL = Duration.ofMinutes(5);
+  private static final long RESULT_CACHE_MAX_SIZE = 1000;
+
+  private final String authorization;
+  private final WebClient webClient;
+  private final Cache<String, IntrospectionResult> resultCache = Caffeine.newBuilder()
+      .maximumSize(RESULT_CACHE_MAX_SIZE)
+      .expireAfter(new ResultExpiry())
+      .build();
 
   public Introspector(String connectedAppId, String connectedAppSecret, String endpoint) {
-    this.connectedAppId = connectedAppId;
-    this.connectedAppSecret = connectedAppSecret;
-    this.webClient = WebClient.create(endpoint);
+    this(connectedAppId, connectedAppSecret, endpoint, WebClient.create());
+  }
+
+  /**
+   * Creates Introspector that sends requests using given WebClient, so that it can share
+   * connections with other clients.
+   */
+  public Introspector(String connectedAppId, String connectedAppSecret, String endpoint,
+      WebClient webClient) {
+    this.authorization = createAuthorization(connectedAppId, connectedAppSecret);
+    this.webClient = webClient.mutate().baseUrl(endpoint).build();
   }
 
   public IntrospectionResult introspect(String token) {
-    return webClient.post()
-        .uri("/services/oauth2/introspect")
-        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
-        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-        .header(HttpHeaders.AUTHORIZATION, getAuthorization())
-        .body(BodyInserters.fromFormData("token", token)
-            .with("token_type", "access_token"))
-        .retrieve()
-        .bodyToMono(IntrospectionResult.class)
-        .block();
+    return introspectAsync(token).block();
+  }
+
+  public Mono<IntrospectionResult> introspectAsync(String token) {
+    return Mono.defer(() -> {
+      String tokenHash = hash(token);
+      IntrospectionResult cachedResult = resultCache.getIfPresent(tokenHash);
+      if (cachedResult != null) {
+        return Mono.just(cachedResult);
+      }
+      return webClient.post()
+          .uri("/services/oauth2/introspect")
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+          .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+          .header(HttpHeaders.AUTHORIZATION, authorization)
+          .body(BodyInserters.fromFormData("token", token)
+              .with("token_type", "access_token"))
+          .retrieve()
+          .bodyToMono(IntrospectionResult.class)
+          .doOnNext(result -> {
+            // inactive tokens are never cached, so that they are checked again.
+            if (result.isActive()) {
+              resultCache.put(tokenHash, result);
+            }
+          });
+    });
   }
 
-  private String getAuthorization() {
-    String auth = this.connectedAppId + ":" + this.connectedAppSecret;
+  private static String hash(String token) {
+    return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+  }
+
+  private static String createAuthorization(String connectedAppId, String connectedAppSecret) {
+    String auth = connectedAppId + ":" + connectedAppSecret;
     byte[] encodedAuth = Base64.getEncoder().encode(
         auth.getBytes(StandardCharsets.US_ASCII));
     return "Basic " + new String(encodedAuth);
   }
 
+  /**
+   * Expires result when its token expires, or after result cache TTL if sooner.
+   */
+  private static class ResultExpiry implements Expiry<String, IntrospectionResult> {
+
+    @Override
+    public long expireAfterCreate(String tokenHash, IntrospectionResult result,
+        long currentTime) {
+      Duration untilExpiry = Duration.between(Instant.now(),
+          Instant.ofEpochSecond(result.getExp()));
+      return Math.max(0, Math.min(RESULT_CACHE_TTL.toNanos(), untilExpiry.toNanos()));
+    }
+
+    @Override
+    public long expireAfterUpdate(String tokenHash, IntrospectionResult result, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(tokenHash, result, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String tokenHash, IntrospectionResult result, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
 }
@@ -12,6 +12,7 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.salesforce.einsteinbot.sdk.cache.Cache;
@@ -24,13 +25,19 @@ import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.apache.http.HttpHeaders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,44 +46,89 @@ import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Implementation of AuthMechanism interface that is used to integrate with Einstein Bots using
  * OAuth.
+ * <p>
+ * Token is kept in process memory until it is about to expire, backed by optional shared cache so
+ * that it can be reused by other instances. So requests look up shared cache only occasionally.
+ * <p>
+ * When refresh-ahead is enabled, token is renewed in background before it expires, so that
+ * requests keep using the current token instead of waiting for a new one. Call {@link #close()}
+ * to stop background refreshes.
+ * <p>
+ * When refresh lease is enabled, instances sharing the cache take a short lease before retrieving
+ * token, so that only one of them calls OAuth server while others wait for the token it caches.
  */
-public class JwtBearerOAuth implements AuthMechanism {
+public class JwtBearerOAuth implements AuthMechanism, AutoCloseable {
 
   private static final Logger logger = LoggerFactory.getLogger(JwtBearerOAuth.class);
 
   public static final String JWT_AUTH_TOKEN_PREFIX = "Bearer ";
 
+  // cached tokens expire this long before the token itself, so a cached token is always valid
+  // for at least this long.
+  private static final long TOKEN_EXPIRY_MARGIN_SECONDS = 300;
+  private static final Map<String, Object> JWT_HEADER = Map.of("alg", "RS256");
+  private static final ObjectReader TOKEN_RESPONSE_READER = new ObjectMapper()
+      .readerFor(ObjectNode.class);
+
   private final int jwtExpiryMinutes = 15;
+  private final Duration jwtReuseMargin = Duration.ofMinutes(1);
   private final String cacheKeyPrefix = "bots-oAuthToken-";
+  private final String leaseKeyPrefix = "bots-oAuthToken-lease-";
+  private final Duration leasePollInterval = Duration.ofMillis(100);
+  private final Duration refreshRetryDelay = Duration.ofSeconds(30);
+  // how long a token found in shared cache is reused locally before looking it up again.
+  private final Duration sharedTokenLocalTtl = Duration.ofSeconds(60);
 
   private String loginEndpoint;
   private String connectedAppId;
   private String userId;
-  private PrivateKey privateKey;
+  private Algorithm algorithm;
   private WebClient webClient;
   private Optional<Cache> cache;
   private Introspector introspector;
+  private Optional<Duration> refreshAhead;
+  private TokenRefreshListener refreshListener;
+  private IntrospectionMode introspectionMode;
+  private Optional<Duration> tokenLifetime;
+  private Optional<Duration> refreshLease;
+  // identifies this instance as lease holder, so that it never releases lease of another instance.
+  private final String leaseOwner = UUID.randomUUID().toString();
+  private final AtomicReference<CompletableFuture<String>> inFlightRefresh =
+      new AtomicReference<>();
+  private final AtomicReference<Disposable> scheduledRefresh =
+      new AtomicReference<>(Disposables.disposed());
+  private volatile Instant tokenExpiry;
+  private volatile ExpiringValue<String> localToken;
+  private volatile ExpiringValue<String> jwtAssertion;
+  private volatile boolean closed;
 
   private JwtBearerOAuth(PrivateKey privateKey, String loginEndpoint, String connectedAppId,
       String connectedAppSecret,
-      String userId, Optional<Cache> cache) {
+      String userId, Optional<Cache> cache, Optional<Duration> refreshAhead,
+      TokenRefreshListener refreshListener, IntrospectionMode introspectionMode,
+      Optional<Duration> tokenLifetime, Optional<Duration> refreshLease,
+      Optional<WebClient> webClient) {
     Objects.nonNull(privateKey);
     Objects.nonNull(loginEndpoint);
     Objects.nonNull(connectedAppId);
     Objects.nonNull(connectedAppSecret);
     Objects.nonNull(userId);
     Objects.nonNull(cache);
-    this.privateKey = privateKey;
+    this.algorithm = Algorithm.RSA256(null, (RSAPrivateKey) privateKey);
     this.userId = userId;
     this.connectedAppId = connectedAppId;
     this.loginEndpoint = loginEndpoint;
-    this.webClient = WebClient
-        .builder()
+    // mutating given WebClient keeps its connector, so that connections are shared with it.
+    this.webClient = webClient.map(WebClient::mutate).orElseGet(WebClient::builder)
         .baseUrl(loginEndpoint)
         .filter(WebClientUtil.createFilter(
             clientRequest -> WebClientUtil.createLoggingRequestProcessor(clientRequest),
@@ -84,7 +136,13 @@ public class JwtBearerOAuth implements AuthMechanism {
                 .createErrorResponseProcessor(clientResponse, this::mapErrorResponse)))
         .build();
     this.cache = cache;
-    this.introspector = new Introspector(connectedAppId, connectedAppSecret, loginEndpoint);
+    this.introspector = new Introspector(connectedAppId, connectedAppSecret, loginEndpoint,
+        webClient.orElseGet(WebClient::create));
+    this.refreshAhead = refreshAhead;
+    this.refreshListener = refreshListener;
+    this.introspectionMode = introspectionMode;
+    this.tokenLifetime = tokenLifetime;
+    this.refreshLease = refreshLease;
   }
 
   private Mono<ClientResponse> mapErrorResponse(ClientResponse clientResponse) {
@@ -106,24 +164,165 @@ public class JwtBearerOAuth implements AuthMechanism {
 
   @Override
   public String getToken() {
-    Optional<String> token = cache.flatMap(c -> c.get(getCacheKey()));
+    ExpiringValue<String> local = localToken;
+    if (local != null && local.isValid()) {
+      return local.value;
+    }
+
+    Optional<String> token = getCachedToken();
     if (token.isPresent()) {
-      logger.debug("Found cached OAuth token.");
       return token.get();
     }
 
     logger.debug("Did not find OAuth token in cache. Will retrieve from OAuth server.");
-    Instant now = Instant.now();
+    return awaitRefresh(refreshToken(this::getCachedOrRetrieveToken));
+  }
+
+  /**
+   * Returns token without blocking the calling thread, so it can be used from event loop threads.
+   * Only lookups of shared cache, which are rare due to token kept in process memory, are run on
+   * boundedElastic scheduler since {@link Cache} is blocking.
+   */
+  @Override
+  public Mono<String> getTokenAsync() {
+    return Mono.defer(() -> {
+      ExpiringValue<String> local = localToken;
+      if (local != null && local.isValid()) {
+        return Mono.just(local.value);
+      }
+      // cancelling one caller should not cancel retrieval shared with other callers.
+      return Mono.fromFuture(refreshToken(this::getCachedOrRetrieveToken), true);
+    });
+  }
+
+  private Optional<String> getCachedToken() {
+    Optional<String> token = cache.flatMap(c -> c.get(getCacheKey()));
+    if (token.isPresent()) {
+      logger.debug("Found cached OAuth token.");
+      localToken = new ExpiringValue<>(token.get(), Instant.now().plus(sharedTokenLocalTtl));
+    }
+    return token;
+  }
+
+  private Mono<String> getCachedOrRetrieveToken() {
+    // token may have been cached by a retrieval that completed after our cache lookup.
+    return onBlockingScheduler(Mono.fromCallable(this::getCachedToken))
+        .flatMap(token -> token.map(Mono::just).orElseGet(this::retrieveTokenWithLease));
+  }
+
+  /**
+   * Retrieves token only if refresh lease could be taken. Otherwise waits for the lease holder to
+   * cache its token, and retrieves token itself only if none is cached before lease expires.
+   */
+  private Mono<String> retrieveTokenWithLease() {
+    if (refreshLease.isEmpty()) {
+      return retrieveToken();
+    }
+    Duration leaseDuration = refreshLease.get();
+    return onBlockingScheduler(Mono.fromCallable(() -> cache.get()
+        .setIfAbsent(getLeaseKey(), leaseOwner, leaseDuration.getSeconds())))
+        .flatMap(leaseTaken -> {
+          if (leaseTaken) {
+            logger.debug("Took OAuth token refresh lease.");
+            return retrieveToken()
+                .flatMap(token -> releaseLease().thenReturn(token))
+                .onErrorResume(error -> releaseLease().then(Mono.error(error)));
+          }
+          logger.debug("OAuth token refresh lease is held by another instance. Waiting for token.");
+          return waitForCachedToken()
+              .timeout(leaseDuration, Mono.defer(() -> {
+                logger.warn("No OAuth token cached before refresh lease expired. Retrieving it.");
+                return retrieveToken();
+              }));
+        });
+  }
+
+  private Mono<String> waitForCachedToken() {
+    // cache lookups block, so cache is polled on boundedElastic scheduler.
+    return Flux.interval(leasePollInterval, Schedulers.boundedElastic())
+        .concatMap(tick -> Mono.justOrEmpty(getCachedToken()))
+        .next();
+  }
+
+  private Mono<Void> releaseLease() {
+    return onBlockingScheduler(Mono.fromRunnable(() -> {
+      try {
+        Cache c = cache.get();
+        // not atomic, but lease expires shortly anyway if another instance took it meanwhile.
+        if (c.get(getLeaseKey()).filter(leaseOwner::equals).isPresent()) {
+          c.remove(getLeaseKey());
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Failed to release OAuth token refresh lease. It will expire.", e);
+      }
+    }));
+  }
+
+  /**
+   * Retrieves new token from OAuth server, making sure only one retrieval is in flight at a time.
+   * Concurrent callers share the result of the in-flight retrieval instead of starting their own.
+   */
+  private CompletableFuture<String> refreshToken(Supplier<Mono<String>> tokenRetriever) {
+    CompletableFuture<String> refresh = new CompletableFuture<>();
+    CompletableFuture<String> existingRefresh = inFlightRefresh.compareAndExchange(null, refresh);
+    if (existingRefresh != null) {
+      logger.debug("Waiting for in-flight OAuth token retrieval.");
+      return existingRefresh;
+    }
+
+    refresh.whenComplete((token, error) -> inFlightRefresh.compareAndSet(refresh, null));
+    Mono.defer(tokenRetriever)
+        .subscribe(refresh::complete, refresh::completeExceptionally);
+    return refresh;
+  }
+
+  private String awaitRefresh(CompletableFuture<String> refresh) {
+    try {
+      return refresh.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private Mono<String> retrieveToken() {
+    return Mono.fromCallable(this::getJwtAssertion)
+        .flatMap(this::requestToken)
+        .flatMap(node -> {
+          String oAuthToken = node.get("access_token").asText();
+          return getTokenExpiry(oAuthToken, node)
+              .flatMap(expiry -> onBlockingScheduler(
+                  Mono.fromRunnable(() -> storeToken(oAuthToken, expiry))))
+              .then(Mono.fromRunnable(() -> {
+                if (introspectionMode == IntrospectionMode.ASYNC) {
+                  introspectInBackground(oAuthToken);
+                }
+              }))
+              .thenReturn(oAuthToken);
+        });
+  }
+
+  /**
+   * Returns signed JWT assertion used to request token. Assertion is reused until shortly before
+   * it expires, so that refreshes do not pay for RSA signing every time.
+   */
+  @VisibleForTesting
+  String getJwtAssertion() {
+    ExpiringValue<String> assertion = jwtAssertion;
+    if (assertion != null && assertion.isValid()) {
+      return assertion.value;
+    }
+
+    Instant expiry = Instant.now().plus(jwtExpiryMinutes, ChronoUnit.MINUTES);
     String jwt = null;
 
     try {
-      Map<String, Object> headers = new HashMap<String, Object>();
-      headers.put("alg", "RS256");
-      Algorithm algorithm = Algorithm.RSA256(null, (RSAPrivateKey) privateKey);
       jwt = JWT.create()
-          .withHeader(headers)
+          .withHeader(JWT_HEADER)
           .withAudience(loginEndpoint)
-          .withExpiresAt(Date.from(now.plus(jwtExpiryMinutes, ChronoUnit.MINUTES)))
+          .withExpiresAt(Date.from(expiry))
           .withIssuer(connectedAppId)
           .withSubject(userId)
           .sign(algorithm);
@@ -134,8 +333,13 @@ public class JwtBearerOAuth implements AuthMechanism {
       //Invalid Signing configuration / Couldn't convert Claims.
       throw new RuntimeException(exception);
     }
+    // not reused close to expiry, so that it does not expire before reaching OAuth server.
+    jwtAssertion = new ExpiringValue<>(jwt, expiry.minus(jwtReuseMargin));
+    return jwt;
+  }
 
-    String response = webClient.post()
+  private Mono<ObjectNode> requestToken(String jwt) {
+    return webClient.post()
         .uri("/services/oauth2/token")
         .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
         .body(
@@ -143,28 +347,152 @@ public class JwtBearerOAuth implements AuthMechanism {
                 .with("assertion", jwt))
         .retrieve()
         .bodyToMono(String.class)
-        .block();
+        .map(JwtBearerOAuth::parseTokenResponse);
+  }
 
-    String oAuthToken = null;
+  @VisibleForTesting
+  static ObjectNode parseTokenResponse(String response) {
     try {
-      ObjectNode node = new ObjectMapper().readValue(response, ObjectNode.class);
-      oAuthToken = node.get("access_token").asText();
+      return TOKEN_RESPONSE_READER.readValue(response);
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
+  }
 
-    IntrospectionResult iResult = introspector.introspect(oAuthToken);
-    if (!iResult.isActive()) {
-      throw new RuntimeException("OAuth token is not active.");
+  private Mono<Instant> getTokenExpiry(String oAuthToken, ObjectNode node) {
+    if (introspectionMode != IntrospectionMode.BLOCKING) {
+      return Mono.just(getExpiryFromTokenResponse(node));
     }
+    return introspector.introspectAsync(oAuthToken)
+        .map(iResult -> {
+          if (!iResult.isActive()) {
+            throw new RuntimeException("OAuth token is not active.");
+          }
+          return Instant.ofEpochSecond(iResult.getExp());
+        });
+  }
+
+  /**
+   * Shared cache is blocking, so calls to it are moved off the calling thread when it is present.
+   */
+  private <T> Mono<T> onBlockingScheduler(Mono<T> cacheCall) {
+    return cache.isPresent() ? cacheCall.subscribeOn(Schedulers.boundedElastic()) : cacheCall;
+  }
 
-    Instant expiry = Instant.ofEpochSecond(iResult.getExp());
-    long ttl = Math.max(0, Instant.now().until(expiry, ChronoUnit.SECONDS) - 300);
+  private void storeToken(String oAuthToken, Instant expiry) {
+    long ttl = Math.max(0,
+        Instant.now().until(expiry, ChronoUnit.SECONDS) - TOKEN_EXPIRY_MARGIN_SECONDS);
+    localToken = new ExpiringValue<>(oAuthToken, Instant.now().plusSeconds(ttl));
 
     if (cache.isPresent()) {
       cache.get().set(getCacheKey(), oAuthToken, ttl);
     }
-    return oAuthToken;
+    tokenExpiry = expiry;
+    refreshAhead.ifPresent(ahead -> scheduleRefresh(getRefreshDelay(expiry, ahead)));
+  }
+
+  /**
+   * Uses 'expires_in' of token response if present. Otherwise adds configured token lifetime to
+   * 'issued_at' of token response, or to current time if that is not present either.
+   */
+  private Instant getExpiryFromTokenResponse(ObjectNode node) {
+    if (node.hasNonNull("expires_in")) {
+      return Instant.now().plusSeconds(node.get("expires_in").asLong());
+    }
+    Instant issuedAt = node.hasNonNull("issued_at")
+        ? Instant.ofEpochMilli(node.get("issued_at").asLong())
+        : Instant.now();
+    return issuedAt.plus(tokenLifetime.get());
+  }
+
+  private void introspectInBackground(String oAuthToken) {
+    introspector.introspectAsync(oAuthToken)
+        // storing token may block on cache, so it is not done on http client threads.
+        .publishOn(Schedulers.boundedElastic())
+        .subscribe(iResult -> {
+          if (!isCurrentToken(oAuthToken)) {
+            return;
+          }
+          if (iResult.isActive()) {
+            storeToken(oAuthToken, Instant.ofEpochSecond(iResult.getExp()));
+          } else {
+            logger.warn("OAuth token is not active. Discarding it.");
+            localToken = null;
+            cache.ifPresent(c -> c.remove(getCacheKey()));
+          }
+        }, error -> logger.warn("Failed to introspect OAuth token.", error));
+  }
+
+  /**
+   * Discards given token from process memory and cache, unless it was already replaced. So the
+   * next request retrieves a new token, sharing the retrieval with concurrent requests.
+   */
+  @Override
+  public void invalidateToken(String oAuthToken) {
+    if (isCurrentToken(oAuthToken)) {
+      logger.debug("Invalidating OAuth token.");
+      localToken = null;
+    }
+    cache.ifPresent(c -> {
+      // not atomic, but at worst a token just cached by another instance is retrieved again.
+      if (c.get(getCacheKey()).filter(oAuthToken::equals).isPresent()) {
+        c.remove(getCacheKey());
+      }
+    });
+  }
+
+  private boolean isCurrentToken(String oAuthToken) {
+    ExpiringValue<String> local = localToken;
+    return local != null && local.value.equals(oAuthToken);
+  }
+
+  private Duration getRefreshDelay(Instant expiry, Duration refreshAhead) {
+    Duration untilExpiry = Duration.between(Instant.now(), expiry);
+    Duration delay = untilExpiry.minus(refreshAhead);
+    // for tokens that are shorter lived than refreshAhead, refresh half way through their life.
+    return delay.isNegative() ? untilExpiry.dividedBy(2) : delay;
+  }
+
+  private void scheduleRefresh(Duration delay) {
+    if (closed) {
+      return;
+    }
+    logger.debug("Scheduling OAuth token refresh in {}", delay);
+    // refresh blocks on OAuth server calls, so it is run on boundedElastic scheduler.
+    Disposable refresh = Mono.delay(delay.isNegative() ? Duration.ZERO : delay,
+            Schedulers.boundedElastic())
+        .subscribe(tick -> refreshInBackground());
+    scheduledRefresh.getAndSet(refresh).dispose();
+  }
+
+  private void refreshInBackground() {
+    try {
+      // requests keep using the cached token, until this refresh replaces it.
+      awaitRefresh(refreshToken(this::retrieveToken));
+      notifyRefreshListener(listener -> listener.onTokenRefreshed(tokenExpiry));
+    } catch (RuntimeException e) {
+      logger.warn("Background OAuth token refresh failed. Will retry in {}", refreshRetryDelay, e);
+      notifyRefreshListener(listener -> listener.onTokenRefreshFailed(e));
+      scheduleRefresh(refreshRetryDelay);
+    }
+  }
+
+  private void notifyRefreshListener(Consumer<TokenRefreshListener> notification) {
+    try {
+      notification.accept(refreshListener);
+    } catch (RuntimeException e) {
+      logger.warn("Token refresh listener failed.", e);
+    }
+  }
+
+  /**
+   * Stops background token refreshes. Tokens can still be retrieved on demand using {@link
+   * #getToken()}.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    scheduledRefresh.get().dispose();
   }
 
   @Override
@@ -193,6 +521,29 @@ public class JwtBearerOAuth implements AuthMechanism {
     return cacheKeyPrefix + connectedAppId;
   }
 
+  private String getLeaseKey() {
+    return leaseKeyPrefix + connectedAppId;
+  }
+
+  /**
+   * Value held in process memory until given time. Used for token, to avoid looking up shared
+   * cache on every request, and for JWT assertion, to avoid signing it on every refresh.
+   */
+  private static class ExpiringValue<T> {
+
+    private final T value;
+    private final Instant validUntil;
+
+    private ExpiringValue(T value, Instant validUntil) {
+      this.value = value;
+      this.validUntil = validUntil;
+    }
+
+    private boolean isValid() {
+      return Instant.now().isBefore(validUntil);
+    }
+  }
+
   public static class FluentBuilder implements PrivateKeyBuilder,
       LoginEndpointBuilder,
       ConnectedAppIdBuilder,
@@ -206,6 +557,14 @@ public class JwtBearerOAuth implements AuthMechanism {
     String connectedAppSecret;
     String userId;
     Optional<Cache> cache = Optional.empty();
+    Optional<Duration> refreshAhead = Optional.empty();
+    TokenRefreshListener refreshListener = new TokenRefreshListener() {
+      /*NOOP Listener*/
+    };
+    IntrospectionMode introspectionMode = IntrospectionMode.BLOCKING;
+    Optional<Duration> tokenLifetime = Optional.empty();
+    Optional<Duration> refreshLease = Optional.empty();
+    Optional<WebClient> webClient = Optional.empty();
 
     @Override
     public LoginEndpointBuilder privateKey(PrivateKey privateKey) {
@@ -255,10 +614,89 @@ public class JwtBearerOAuth implements AuthMechanism {
       return this;
     }
 
+    @Override
+    public FinalBuilder refreshAhead(Duration refreshBeforeExpiry) {
+      Objects.requireNonNull(refreshBeforeExpiry);
+      // cached token expires before the margin, so refreshing later would not prevent misses.
+      if (refreshBeforeExpiry.getSeconds() <= TOKEN_EXPIRY_MARGIN_SECONDS) {
+        throw new IllegalArgumentException("refreshBeforeExpiry should be longer than "
+            + TOKEN_EXPIRY_MARGIN_SECONDS + " seconds");
+      }
+      this.refreshAhead = Optional.of(refreshBeforeExpiry);
+      return this;
+    }
+
+    @Override
+    public FinalBuilder tokenRefreshListener(TokenRefreshListener refreshListener) {
+      this.refreshListener = Objects.requireNonNull(refreshListener);
+      return this;
+    }
+
+    @Override
+    public FinalBuilder introspectionMode(IntrospectionMode introspectionMode) {
+      this.introspectionMode = Objects.requireNonNull(introspectionMode);
+      return this;
+    }
+
+    @Override
+    public FinalBuilder tokenLifetime(Duration tokenLifetime) {
+      Objects.requireNonNull(tokenLifetime);
+      if (tokenLifetime.isNegative() || tokenLifetime.isZero()) {
+        throw new IllegalArgumentException("tokenLifetime should be positive");
+      }
+      this.tokenLifetime = Optional.of(tokenLifetime);
+      return this;
+    }
+
+    @Override
+    public FinalBuilder refreshLease(Duration leaseDuration) {
+      Objects.requireNonNull(leaseDuration);
+      if (leaseDuration.getSeconds() < 1) {
+        throw new IllegalArgumentException("leaseDuration should be at least one second");
+      }
+      this.refreshLease = Optional.of(leaseDuration);
+      return this;
+    }
+
+    @Override
+    public FinalBuilder webClient(WebClient webClient) {
+      this.webClient = Optional.of(webClient);
+      return this;
+    }
+
+    /**
+     * @return New builder with the same configuration, so that it can be changed without changing
+     * this one.
+     */
+    FluentBuilder copy() {
+      FluentBuilder copy = new FluentBuilder();
+      copy.privateKey = privateKey;
+      copy.loginEndpoint = loginEndpoint;
+      copy.connectedAppId = connectedAppId;
+      copy.connectedAppSecret = connectedAppSecret;
+      copy.userId = userId;
+      copy.cache = cache;
+      copy.refreshAhead = refreshAhead;
+      copy.refreshListener = refreshListener;
+      copy.introspectionMode = introspectionMode;
+      copy.tokenLifetime = tokenLifetime;
+      copy.refreshLease = refreshLease;
+      copy.webClient = webClient;
+      return copy;
+    }
+
     @Override
     public JwtBearerOAuth build() {
+      if (refreshLease.isPresent() && cache.isEmpty()) {
+        throw new IllegalStateException("Please provide cache when refreshLease is enabled");
+      }
+      if (introspectionMode != IntrospectionMode.BLOCKING && tokenLifetime.isEmpty()) {
+        throw new IllegalStateException(
+            "Please provide tokenLifetime when introspectionMode is " + introspectionMode);
+      }
       return new JwtBearerOAuth(privateKey, loginEndpoint, connectedAppId, connectedAppSecret,
-          userId, cache);
+          userId, cache, refreshAhead, refreshListener, introspectionMode, tokenLifetime,
+          refreshLease, webClient);
     }
   }
 
@@ -295,6 +733,46 @@ public class JwtBearerOAuth implements AuthMechanism {
 
     FinalBuilder cache(Optional<Cache> cache);
 
-    AuthMechanism build();
+    /**
+     * Enables refresh-ahead, which renews token in background given duration before it expires.
+     * Since refreshed token is shared using cache, a cache should be configured as well.
+     *
+     * @param refreshBeforeExpiry How long before token expiry to renew it. Cached token expires 5
+     *                            minutes before token expiry, so this must be longer than that.
+     */
+    FinalBuilder refreshAhead(Duration refreshBeforeExpiry);
+
+    FinalBuilder tokenRefreshListener(TokenRefreshListener refreshListener);
+
+    /**
+     * @param introspectionMode How token expiry is learnt. Defaults to {@link
+     *                          IntrospectionMode#BLOCKING}.
+     */
+    FinalBuilder introspectionMode(IntrospectionMode introspectionMode);
+
+    /**
+     * @param tokenLifetime Lifetime of tokens, used when token response does not include expiry.
+     *                      Should match session timeout of connected app. Required when
+     *                      introspectionMode is not {@link IntrospectionMode#BLOCKING}.
+     */
+    FinalBuilder tokenLifetime(Duration tokenLifetime);
+
+    /**
+     * Enables refresh lease, so that only one of the instances sharing cache retrieves token from
+     * OAuth server at a time. Requires a cache with atomic {@link Cache#setIfAbsent}, such as
+     * {@link com.salesforce.einsteinbot.sdk.cache.RedisCache}.
+     *
+     * @param leaseDuration How long an instance holds lease while retrieving token. Others wait for
+     *                      token at most this long before retrieving it themselves.
+     */
+    FinalBuilder refreshLease(Duration leaseDuration);
+
+    /**
+     * @param webClient WebClient used for login and introspection requests, so that connections
+     *                  can be shared with other instances. Base URL is set to loginEndpoint.
+     */
+    FinalBuilder webClient(WebClient webClient);
+
+    JwtBearerOAuth build();
   }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.auth;
+
+import java.time.Instant;
+
+/**
+ * Callback notified by {@link JwtBearerOAuth} about the outcome of background token refreshes.
+ * Refresh failures are reported here instead of failing user requests, which keep using the
+ * current token while it is valid.
+ */
+public interface TokenRefreshListener {
+
+  /**
+   * @param expiry Expiry time of the refreshed token
+   */
+  default void onTokenRefreshed(Instant expiry) {
+  }
+
+  /**
+   * @param error Cause of the failed refresh. Refresh will be retried later.
+   */
+  default void onTokenRefreshFailed(Throwable error) {
+  }
+}
@@ -7,6 +7,9 @@
 
 package com.salesforce.einsteinbot.sdk.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -47,4 +50,82 @@ public interface Cache {
    * @param key
    */
   void remove(String key);
+
+  /**
+   * Adds given key and value in Cache only if key is not present, and expires the entry after given
+   * ttlSeconds. Used for leases that coordinate work across instances sharing the Cache.
+   * <p>
+   * Default implementation is not atomic. Implementations shared across instances should override
+   * it with an atomic operation.
+   *
+   * @param key
+   * @param val
+   * @param ttlSeconds
+   * @return true if value was added, false if key was already present.
+   */
+  default boolean setIfAbsent(String key, String val, long ttlSeconds) {
+    if (get(key).isPresent()) {
+      return false;
+    }
+    set(key, val, ttlSeconds);
+    return true;
+  }
+
+  /**
+   * Get values associated with given keys. Default implementation gets them one by one.
+   * Implementations backed by a remote store should override it to get them in one round trip.
+   *
+   * @param keys
+   * @return Values of keys that are found. Keys that are not found are absent from returned Map.
+   */
+  default Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    for (String key : keys) {
+      get(key).ifPresent(val -> values.put(key, val));
+    }
+    return values;
+  }
+
+  /**
+   * Add or updates given keys and values in Cache. Default implementation sets them one by one.
+   *
+   * @param entries
+   */
+  default void setAll(Map<String, String> entries) {
+    entries.forEach(this::set);
+  }
+
+  /**
+   * Add or updates given keys and values in Cache and expires the entries after given ttlSeconds.
+   * Default implementation sets them one by one.
+   *
+   * @param entries
+   * @param ttlSeconds
+   */
+  default void setAll(Map<String, String> entries, long ttlSeconds) {
+    entries.forEach((key, val) -> set(key, val, ttlSeconds));
+  }
+
+  /**
+   * Removes entries associated with given keys from Cache. Default implementation removes them one
+   * by one.
+   *
+   * @param keys
+   */
+  default void removeAll(Collection<String> keys) {
+    keys.forEach(this::remove);
+  }
+
+  /**
+   * Resets expiry of entries with given keys to the default TTL of this Cache, without changing
+   * their values. Keys that are not present are ignored. Default implementation gets and sets
+   * every entry one by one. It is not atomic, so a value set concurrently between the get and the
+   * set of an entry is overwritten by the previous value. Caches should override it with an
+   * atomic expiry update.
+   *
+   * @param keys
+   */
+  default void refreshTtl(Collection<String> keys) {
+    keys.forEach(key -> get(key).ifPresent(val -> set(key, val)));
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes entries of a {@link SnapshotableCache} to a local file, and restores them when the process
+ * starts again. So conversations keep their Runtime session after a restart or rolling deploy,
+ * instead of all of them starting new sessions at once.
+ * <p>
+ * Snapshots are written sequentially to a temporary file which then replaces the previous
+ * snapshot, so a crash while writing never leaves a partial snapshot behind. Entries expired by the
+ * time of restore are skipped, and so are entries the cache rejects, for eg. keys longer than an
+ * {@link OffHeapCache} accepts. Entries with sliding expiry are restored with the full TTL of the
+ * cache, and keep expiring after not being accessed for it.
+ */
+public class CacheSnapshotter implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotter.class);
+
+  private static final int MAGIC = 0x43534e50;
+  // version 2 adds sliding expiry flag to every entry.
+  private static final int VERSION = 2;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final SnapshotableCache cache;
+  private final Path file;
+  private final LongSupplier clock;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param cache - Cache to snapshot and restore.
+   * @param file  - Snapshot file on local disk.
+   */
+  public CacheSnapshotter(SnapshotableCache cache, Path file) {
+    this(cache, file, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  CacheSnapshotter(SnapshotableCache cache, Path file, LongSupplier clock) {
+    Objects.requireNonNull(cache);
+    Objects.requireNonNull(file);
+    this.cache = cache;
+    this.file = file;
+    this.clock = clock;
+  }
+
+  /**
+   * Restores entries from snapshot file into Cache, with their remaining TTL. Should be called
+   * before Cache is used.
+   *
+   * @return Number of entries restored. 0 if there is no snapshot file.
+   */
+  public int restore() {
+    long now = clock.getAsLong();
+    int restored = 0;
+    int rejected = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      int version = in.readInt() == MAGIC ? in.readInt() : -1;
+      if (version != 1 && version != VERSION) {
+        logger.warn("Ignoring cache snapshot {} with unknown format", file);
+        return 0;
+      }
+      while (in.readBoolean()) {
+        String key = in.readUTF();
+        String val = in.readUTF();
+        long ttlSeconds = TimeUnit.MILLISECONDS.toSeconds(in.readLong() - now);
+        boolean slidingExpiry = version == VERSION && in.readBoolean();
+        if (ttlSeconds <= 0) {
+          continue;
+        }
+        try {
+          if (slidingExpiry) {
+            cache.set(key, val);
+          } else {
+            cache.set(key, val, ttlSeconds);
+          }
+          restored++;
+        } catch (IllegalArgumentException e) {
+          logger.debug("Skipping cache snapshot entry {} rejected by cache", key, e);
+          rejected++;
+        }
+      }
+    } catch (NoSuchFileException e) {
+      logger.info("No cache snapshot found at {}", file);
+    } catch (IOException e) {
+      logger.warn("Stopped restoring cache snapshot {} after {} entries", file, restored, e);
+    }
+    if (rejected > 0) {
+      logger.warn("Skipped {} cache entries of {} rejected by cache", rejected, file);
+    }
+    logger.info("Restored {} cache entries from {}", restored, file);
+    return restored;
+  }
+
+  /**
+   * Writes all entries of Cache to snapshot file.
+   *
+   * @return Number of entries written.
+   */
+  public synchronized int snapshot() {
+    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    AtomicInteger written = new AtomicInteger();
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        cache.forEachEntry((key, val, expiresAtMillis, slidingExpiry) -> {
+          try {
+            out.writeBoolean(true);
+            out.writeUTF(key);
+            out.writeUTF(val);
+            out.writeLong(expiresAtMillis);
+            out.writeBoolean(slidingExpiry);
+            written.incrementAndGet();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        out.writeBoolean(false);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write cache snapshot " + file, e);
+    }
+    logger.debug("Wrote {} cache entries to {}", written.get(), file);
+    return written.get();
+  }
+
+  /**
+   * Starts writing snapshots periodically in background, until this is closed.
+   *
+   * @param interval - Time between snapshots.
+   */
+  public synchronized void start(Duration interval) {
+    if (scheduler != null) {
+      throw new IllegalStateException("CacheSnapshotter is already started");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-snapshotter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::snapshotLoggingErrors, interval.toMillis(),
+        interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops periodic snapshots and writes a last snapshot, so that it is up to date when the process
+   * stops.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (scheduler != null) {
+        scheduler.shutdown();
+        scheduler = null;
+      }
+    }
+    snapshot();
+  }
+
+  private void snapshotLoggingErrors() {
+    try {
+      snapshot();
+    } catch (RuntimeException e) {
+      logger.warn("Failed to write cache snapshot", e);
+    }
+  }
+}
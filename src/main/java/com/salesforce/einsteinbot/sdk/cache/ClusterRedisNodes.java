@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+/**
+ * Redis Cluster. Commands for single keys go through {@link JedisCluster}, which follows
+ * redirections. Commands for many keys are grouped by the node serving the hash slot of each key,
+ * and pipelined to each node, so they are sent in one round trip per node instead of per key.
+ */
+final class ClusterRedisNodes implements RedisNodes {
+
+  private final JedisCluster jedisCluster;
+
+  ClusterRedisNodes(JedisCluster jedisCluster) {
+    this.jedisCluster = jedisCluster;
+  }
+
+  @Override
+  public String get(String key) {
+    return jedisCluster.get(key);
+  }
+
+  @Override
+  public void setex(String key, long ttlSeconds, String val) {
+    jedisCluster.setex(key, ttlSeconds, val);
+  }
+
+  @Override
+  public String set(String key, String val, SetParams params) {
+    return jedisCluster.set(key, val, params);
+  }
+
+  @Override
+  public void del(String key) {
+    jedisCluster.del(key);
+  }
+
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    pipelinedByNode(keys, Pipeline::get, jedisCluster::get).forEach((key, val) -> {
+      if (val != null) {
+        values.put(key, val);
+      }
+    });
+    return values;
+  }
+
+  @Override
+  public void setexAll(Map<String, String> entries, long ttlSeconds) {
+    pipelinedByNode(entries.keySet(),
+        (pipeline, key) -> pipeline.setex(key, ttlSeconds, entries.get(key)),
+        key -> jedisCluster.setex(key, ttlSeconds, entries.get(key)));
+  }
+
+  @Override
+  public void delAll(Collection<String> keys) {
+    pipelinedByNode(keys, Pipeline::del, jedisCluster::del);
+  }
+
+  @Override
+  public void expireAll(Collection<String> keys, long ttlSeconds) {
+    pipelinedByNode(keys, (pipeline, key) -> pipeline.expire(key, (int) ttlSeconds),
+        key -> jedisCluster.expire(key, ttlSeconds));
+  }
+
+  /**
+   * Sends command for every key with a pipeline to the node serving its hash slot. Keys whose
+   * slot moved to another node since the slot cache was refreshed are sent again through
+   * JedisCluster, which follows the redirection.
+   *
+   * @return Results by key.
+   */
+  private <T> Map<String, T> pipelinedByNode(Collection<String> keys,
+      BiFunction<Pipeline, String, Response<T>> command, Function<String, T> redirectedCommand) {
+    Map<String, T> results = new HashMap<>();
+    Map<String, Jedis> connections = new HashMap<>();
+    try {
+      groupByNode(keys, connections).forEach((node, nodeKeys) -> {
+        Pipeline pipeline = connections.get(node).pipelined();
+        Map<String, Response<T>> responses = new LinkedHashMap<>();
+        nodeKeys.forEach(key -> responses.put(key, command.apply(pipeline, key)));
+        pipeline.sync();
+        responses.forEach((key, response) -> {
+          try {
+            results.put(key, response.get());
+          } catch (JedisRedirectionException e) {
+            results.put(key, redirectedCommand.apply(key));
+          }
+        });
+      });
+    } finally {
+      connections.values().forEach(Jedis::close);
+    }
+    return results;
+  }
+
+  /**
+   * Groups keys by node serving their hash slot, keeping one connection to each node in given
+   * map.
+   */
+  private Map<String, List<String>> groupByNode(Collection<String> keys,
+      Map<String, Jedis> connections) {
+    Map<Integer, List<String>> keysBySlot = new LinkedHashMap<>();
+    keys.forEach(key -> keysBySlot
+        .computeIfAbsent(JedisClusterCRC16.getSlot(key), slot -> new ArrayList<>()).add(key));
+    Map<String, List<String>> keysByNode = new LinkedHashMap<>();
+    keysBySlot.forEach((slot, slotKeys) -> {
+      Jedis jedis = jedisCluster.getConnectionFromSlot(slot);
+      String node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+      if (connections.putIfAbsent(node, jedis) != null) {
+        jedis.close();
+      }
+      keysByNode.computeIfAbsent(node, n -> new ArrayList<>()).addAll(slotKeys);
+    });
+    return keysByNode;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to nodes by consistent hashing. Every node is placed on the ring at many points derived
+ * from its name, so keys spread evenly and adding or removing a node only moves the keys of that
+ * node. Nodes with the same names map keys the same way on every instance and after restarts,
+ * regardless of the order they are given in.
+ */
+final class ConsistentHashRing<T> {
+
+  private static final int POINTS_PER_NODE = 160;
+
+  private final NavigableMap<Integer, T> ring = new TreeMap<>();
+
+  /**
+   * @param nodes Nodes by their names.
+   */
+  ConsistentHashRing(Map<String, T> nodes) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("Please provide at least one node");
+    }
+    nodes.forEach((name, node) -> {
+      for (int i = 0; i < POINTS_PER_NODE; i++) {
+        ring.put(hash(name + "-" + i), node);
+      }
+    });
+  }
+
+  T get(String key) {
+    Map.Entry<Integer, T> entry = ring.ceilingEntry(hash(key));
+    return (entry != null ? entry : ring.firstEntry()).getValue();
+  }
+
+  private static int hash(String value) {
+    return Hashing.murmur3_32().hashString(value, StandardCharsets.UTF_8).asInt();
+  }
+}
@@ -7,43 +7,171 @@
 
 package com.salesforce.einsteinbot.sdk.cache;
 
-import com.google.common.cache.CacheBuilder;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy.VarExpiration;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
- * InMemoryCache is an implementation of {@link Cache} which caches entries in memory. It is
- * intended for testing and is not meant to be used in a distributed or production environment.
+ * InMemoryCache is an implementation of {@link Cache} which caches entries in memory of a single
+ * process. It is not meant to be shared by instances in a distributed environment.
+ * <p>
+ * At most maximumSize entries are kept, evicting entries that are least likely to be used again.
+ * Entries set with a ttlSeconds expire that long after they are set. Other entries expire after
+ * not being accessed for the ttlSeconds given to the constructor. Hit, miss and eviction counts are
+ * available from {@link #getStats()}.
  */
-public class InMemoryCache implements Cache {
+public class InMemoryCache implements SnapshotableCache {
 
-  private final com.google.common.cache.Cache<String, String> cache;
+  public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+
+  private final com.github.benmanes.caffeine.cache.Cache<String, Entry> cache;
+  private final long ttlNanos;
 
   public InMemoryCache(long ttlSeconds) {
-    cache = CacheBuilder.newBuilder().expireAfterAccess(ttlSeconds, TimeUnit.SECONDS).build();
+    this(ttlSeconds, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param ttlSeconds  - Expiry time of entries set without ttlSeconds, after last access.
+   * @param maximumSize - Maximum number of entries.
+   */
+  public InMemoryCache(long ttlSeconds, long maximumSize) {
+    this(ttlSeconds, maximumSize, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  InMemoryCache(long ttlSeconds, long maximumSize, Ticker ticker) {
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new EntryExpiry())
+        .ticker(ticker)
+        .recordStats()
+        .build();
   }
 
   @Override
   public Optional<String> get(String key) {
-    String val = cache.getIfPresent(key);
-    return Optional.ofNullable(val);
+    return Optional.ofNullable(cache.getIfPresent(key)).map(entry -> entry.value);
   }
 
   @Override
   public void set(String key, String val) {
-    cache.put(key, val);
+    cache.put(key, new Entry(val, ttlNanos, true));
   }
 
-  /**
-   * This method does not respect the ttlSeconds parameter.
-   */
   @Override
   public void set(String key, String val, long ttlSeconds) {
-    cache.put(key, val);
+    cache.put(key, new Entry(val, TimeUnit.SECONDS.toNanos(ttlSeconds), false));
   }
 
   @Override
   public void remove(String key) {
     cache.invalidate(key);
   }
+
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlSeconds) {
+    return cache.asMap()
+        .putIfAbsent(key, new Entry(val, TimeUnit.SECONDS.toNanos(ttlSeconds), false)) == null;
+  }
+
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    cache.getAllPresent(keys).forEach((key, entry) -> values.put(key, entry.value));
+    return values;
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries) {
+    entries.forEach(this::set);
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries, long ttlSeconds) {
+    entries.forEach((key, val) -> set(key, val, ttlSeconds));
+  }
+
+  @Override
+  public void removeAll(Collection<String> keys) {
+    cache.invalidateAll(keys);
+  }
+
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    VarExpiration<String, Entry> expiration = cache.policy().expireVariably().orElseThrow();
+    keys.forEach(key -> expiration.setExpiresAfter(key, ttlNanos, TimeUnit.NANOSECONDS));
+  }
+
+  @Override
+  public void forEachEntry(EntryConsumer consumer) {
+    long now = System.currentTimeMillis();
+    VarExpiration<String, Entry> expiration = cache.policy().expireVariably().orElseThrow();
+    cache.asMap().forEach((key, entry) -> expiration.getExpiresAfter(key, TimeUnit.MILLISECONDS)
+        .ifPresent(remainingMillis -> {
+          if (remainingMillis > 0) {
+            consumer.accept(key, entry.value, now + remainingMillis, entry.extendOnAccess);
+          }
+        }));
+  }
+
+  /**
+   * @return Hit, miss and eviction statistics since this cache was created.
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @VisibleForTesting
+  void cleanUp() {
+    cache.cleanUp();
+  }
+
+  @VisibleForTesting
+  long estimatedSize() {
+    return cache.estimatedSize();
+  }
+
+  private static class Entry {
+
+    private final String value;
+    private final long ttlNanos;
+    // whether expiry is extended on every access, like for entries set without ttlSeconds.
+    private final boolean extendOnAccess;
+
+    private Entry(String value, long ttlNanos, boolean extendOnAccess) {
+      this.value = value;
+      this.ttlNanos = ttlNanos;
+      this.extendOnAccess = extendOnAccess;
+    }
+  }
+
+  private static class EntryExpiry implements Expiry<String, Entry> {
+
+    @Override
+    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+      return entry.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Entry entry, long currentTime,
+        long currentDuration) {
+      return entry.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterRead(String key, Entry entry, long currentTime,
+        long currentDuration) {
+      return entry.extendOnAccess ? entry.ttlNanos : currentDuration;
+    }
+  }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel used by {@link NearCache} instances to tell each other which keys changed, so that they
+ * evict those keys from process memory.
+ */
+public interface InvalidationChannel {
+
+  /**
+   * Publishes given message to all subscribers, including subscribers of this instance.
+   * @param message
+   */
+  void publish(String message);
+
+  /**
+   * Registers listener that is called with every message published on the channel.
+   * @param listener
+   */
+  void subscribe(Consumer<String> listener);
+
+  /**
+   * Stops calling given listener. Listeners that are not subscribed are ignored.
+   * @param listener
+   */
+  void unsubscribe(Consumer<String> listener);
+}
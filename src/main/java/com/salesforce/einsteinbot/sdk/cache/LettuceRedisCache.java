@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Redis Cache implementation using Lettuce client. All calls share a single multiplexed connection,
+ * so concurrency is not limited by a connection pool like in {@link RedisCache}.
+ * <p>
+ * It can be used in place of {@link RedisCache} wherever a {@link Cache} is used. Use {@link
+ * #reactive()} to look up sessions without blocking, for eg. with {@link
+ * com.salesforce.einsteinbot.sdk.client.ReactiveSessionManagedChatbotClient}. Call {@link
+ * #close()} to close the connection.
+ */
+public class LettuceRedisCache implements Cache, AutoCloseable {
+
+  private static final Long DEFAULT_TTL_SECONDS = 259140L; // 2 days, 23 hours, 59 minutes
+
+  private final RedisClient redisClient;
+  private final StatefulRedisConnection<String, String> connection;
+  private final long ttlSeconds;
+  private final ReactiveCache reactiveCache = new ReactiveLettuceRedisCache();
+
+  /**
+   * This constructor will use the default ttl of 259,140 seconds and will assume standard Redis
+   * configuration(i.e. running on local machine on default port).
+   */
+  public LettuceRedisCache() {
+    this(DEFAULT_TTL_SECONDS, "redis://127.0.0.1:6379");
+  }
+
+  /**
+   * @param ttlSeconds - Cache expiry time. The recommended value here is 259,140 seconds.
+   * @param redisUrl   - Url of Redis (i.e. redis://127.0.0.1:6379)
+   */
+  public LettuceRedisCache(Long ttlSeconds, String redisUrl) {
+    this.ttlSeconds = ttlSeconds;
+    this.redisClient = RedisClient.create(redisUrl);
+    this.connection = redisClient.connect();
+  }
+
+  @VisibleForTesting
+  LettuceRedisCache(long ttlSeconds, StatefulRedisConnection<String, String> connection) {
+    this.ttlSeconds = ttlSeconds;
+    this.redisClient = null;
+    this.connection = connection;
+  }
+
+  /**
+   * @return Non-blocking view of this cache, sharing its connection.
+   */
+  public ReactiveCache reactive() {
+    return reactiveCache;
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    return Optional.ofNullable(connection.sync().get(key));
+  }
+
+  @Override
+  public void set(String key, String val) {
+    connection.sync().setex(key, ttlSeconds, val);
+  }
+
+  @Override
+  public void set(String key, String val, long ttlInSeconds) {
+    connection.sync().setex(key, ttlInSeconds, val);
+  }
+
+  @Override
+  public void remove(String key) {
+    connection.sync().del(key);
+  }
+
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlInSeconds) {
+    return "OK".equals(connection.sync().set(key, val, SetArgs.Builder.nx().ex(ttlInSeconds)));
+  }
+
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    if (keys.isEmpty()) {
+      return values;
+    }
+    connection.sync().mget(keys.toArray(new String[0])).stream()
+        .filter(KeyValue::hasValue)
+        .forEach(keyValue -> values.put(keyValue.getKey(), keyValue.getValue()));
+    return values;
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries) {
+    setAll(entries, ttlSeconds);
+  }
+
+  /**
+   * Sends all SETEX commands before waiting for their replies, so they take one round trip.
+   */
+  @Override
+  public void setAll(Map<String, String> entries, long ttlInSeconds) {
+    RedisAsyncCommands<String, String> commands = connection.async();
+    RedisFuture<?>[] futures = entries.entrySet().stream()
+        .map(entry -> commands.setex(entry.getKey(), ttlInSeconds, entry.getValue()))
+        .toArray(RedisFuture[]::new);
+    awaitAll(futures);
+  }
+
+  @Override
+  public void removeAll(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    connection.sync().del(keys.toArray(new String[0]));
+  }
+
+  /**
+   * Sends all EXPIRE commands before waiting for their replies, so they take one round trip.
+   */
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    RedisAsyncCommands<String, String> commands = connection.async();
+    RedisFuture<?>[] futures = keys.stream()
+        .map(key -> commands.expire(key, ttlSeconds))
+        .toArray(RedisFuture[]::new);
+    awaitAll(futures);
+  }
+
+  /**
+   * Waits for replies of given commands, throwing if any of them failed or did not reply within
+   * the connection timeout, like synchronous commands do.
+   */
+  private void awaitAll(RedisFuture<?>[] futures) {
+    Duration timeout = connection.getTimeout();
+    if (!LettuceFutures.awaitAll(timeout, futures)) {
+      throw new RedisCommandTimeoutException("Commands timed out after " + timeout);
+    }
+  }
+
+  @Override
+  public void close() {
+    connection.close();
+    if (redisClient != null) {
+      redisClient.shutdown();
+    }
+  }
+
+  private class ReactiveLettuceRedisCache implements ReactiveCache {
+
+    @Override
+    public Mono<String> get(String key) {
+      return commands().get(key);
+    }
+
+    @Override
+    public Mono<Void> set(String key, String val) {
+      return commands().setex(key, ttlSeconds, val).then();
+    }
+
+    @Override
+    public Mono<Void> set(String key, String val, long ttlSeconds) {
+      return commands().setex(key, ttlSeconds, val).then();
+    }
+
+    @Override
+    public Mono<Void> remove(String key) {
+      return commands().del(key).then();
+    }
+
+    @Override
+    public Mono<Map<String, String>> getAll(Collection<String> keys) {
+      if (keys.isEmpty()) {
+        return Mono.just(new HashMap<>());
+      }
+      return commands().mget(keys.toArray(new String[0]))
+          .filter(KeyValue::hasValue)
+          .collectMap(KeyValue::getKey, KeyValue::getValue);
+    }
+
+    @Override
+    public Mono<Void> refreshTtl(Collection<String> keys) {
+      return Flux.fromIterable(keys)
+          .flatMap(key -> commands().expire(key, ttlSeconds))
+          .then();
+    }
+
+    private RedisReactiveCommands<String, String> commands() {
+      return connection.reactive();
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Tiered Cache that keeps a bounded number of entries in process memory in front of a shared
+ * Cache, such as {@link RedisCache}. So most lookups of an entry that does not change, like
+ * Runtime session id of a conversation, never leave the process.
+ * <p>
+ * Changes of an entry on one instance are published on an {@link InvalidationChannel}, and other
+ * instances evict the entry from process memory. Entries also expire from process memory after
+ * given TTL, or the TTL they were set with if shorter, which bounds how long an instance may use a
+ * stale entry if it misses a message. An entry read from or written to shared Cache is not kept in
+ * process memory if it was invalidated meanwhile.
+ * <p>
+ * Call {@link #close()} to stop listening to the {@link InvalidationChannel} when the cache is no
+ * longer used.
+ */
+public class NearCache implements Cache, AutoCloseable {
+
+  private static final String MESSAGE_SEPARATOR = "|";
+  private static final int VERSION_STRIPES = 1024;
+
+  private final Cache sharedCache;
+  private final InvalidationChannel invalidationChannel;
+  private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> localCache;
+  private final long localTtlNanos;
+  // incremented on invalidation of a key in the stripe, to detect invalidations during reads.
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+  // identifies messages published by this instance, which do not need to evict anything.
+  private final String instanceId = UUID.randomUUID().toString();
+  private final Consumer<String> invalidationListener = this::onInvalidation;
+
+  /**
+   * @param sharedCache         - Cache shared by all instances.
+   * @param invalidationChannel - Channel shared by all instances, for eg. {@link
+   *                            RedisInvalidationChannel}.
+   * @param maximumSize         - Maximum number of entries kept in process memory.
+   * @param localTtl            - How long an entry is kept in process memory.
+   */
+  public NearCache(Cache sharedCache, InvalidationChannel invalidationChannel, long maximumSize,
+      Duration localTtl) {
+    this(sharedCache, invalidationChannel, maximumSize, localTtl, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  NearCache(Cache sharedCache, InvalidationChannel invalidationChannel, long maximumSize,
+      Duration localTtl, Ticker ticker) {
+    Objects.requireNonNull(sharedCache);
+    Objects.requireNonNull(invalidationChannel);
+    Objects.requireNonNull(localTtl);
+    this.sharedCache = sharedCache;
+    this.invalidationChannel = invalidationChannel;
+    this.localTtlNanos = localTtl.toNanos();
+    this.localCache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new LocalEntryExpiry())
+        .ticker(ticker)
+        .build();
+    invalidationChannel.subscribe(invalidationListener);
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    LocalEntry entry = localCache.getIfPresent(key);
+    if (entry != null) {
+      return Optional.of(entry.value);
+    }
+    long version = versions.get(stripe(key));
+    Optional<String> sharedVal = sharedCache.get(key);
+    sharedVal.ifPresent(v -> putIfNotInvalidated(key, v, localTtlNanos, version));
+    return sharedVal;
+  }
+
+  @Override
+  public void set(String key, String val) {
+    long version = versions.get(stripe(key));
+    sharedCache.set(key, val);
+    putIfNotInvalidated(key, val, localTtlNanos, version);
+    publishInvalidation(key);
+  }
+
+  @Override
+  public void set(String key, String val, long ttlSeconds) {
+    long version = versions.get(stripe(key));
+    sharedCache.set(key, val, ttlSeconds);
+    putIfNotInvalidated(key, val, localTtlNanos(ttlSeconds), version);
+    publishInvalidation(key);
+  }
+
+  @Override
+  public void remove(String key) {
+    sharedCache.remove(key);
+    localCache.invalidate(key);
+    publishInvalidation(key);
+  }
+
+  /**
+   * Not cached in process memory, since it is used for leases that must be checked in shared
+   * Cache.
+   */
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlSeconds) {
+    return sharedCache.setIfAbsent(key, val, ttlSeconds);
+  }
+
+  /**
+   * Looks up keys missing in process memory with one call to shared Cache.
+   */
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    localCache.getAllPresent(keys).forEach((key, entry) -> values.put(key, entry.value));
+    List<String> missingKeys = new ArrayList<>();
+    Map<String, Long> missingKeyVersions = new HashMap<>();
+    for (String key : keys) {
+      if (!values.containsKey(key)) {
+        missingKeys.add(key);
+        missingKeyVersions.put(key, versions.get(stripe(key)));
+      }
+    }
+    if (!missingKeys.isEmpty()) {
+      Map<String, String> sharedValues = sharedCache.getAll(missingKeys);
+      sharedValues.forEach((key, val) -> putIfNotInvalidated(key, val, localTtlNanos,
+          missingKeyVersions.get(key)));
+      values.putAll(sharedValues);
+    }
+    return values;
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries) {
+    Map<String, Long> keyVersions = getVersions(entries.keySet());
+    sharedCache.setAll(entries);
+    entries.forEach((key, val) -> putIfNotInvalidated(key, val, localTtlNanos,
+        keyVersions.get(key)));
+    entries.keySet().forEach(this::publishInvalidation);
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries, long ttlSeconds) {
+    Map<String, Long> keyVersions = getVersions(entries.keySet());
+    sharedCache.setAll(entries, ttlSeconds);
+    long ttlNanos = localTtlNanos(ttlSeconds);
+    entries.forEach((key, val) -> putIfNotInvalidated(key, val, ttlNanos, keyVersions.get(key)));
+    entries.keySet().forEach(this::publishInvalidation);
+  }
+
+  @Override
+  public void removeAll(Collection<String> keys) {
+    sharedCache.removeAll(keys);
+    localCache.invalidateAll(keys);
+    keys.forEach(this::publishInvalidation);
+  }
+
+  /**
+   * Refreshes entries in shared Cache only, values kept in process memory do not change.
+   */
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    sharedCache.refreshTtl(keys);
+  }
+
+  /**
+   * Stops listening to invalidations of other instances, and evicts all entries from process
+   * memory since they would no longer be invalidated.
+   */
+  @Override
+  public void close() {
+    invalidationChannel.unsubscribe(invalidationListener);
+    localCache.invalidateAll();
+  }
+
+  /**
+   * Keeps value read from or written to shared Cache in process memory, unless a key of its stripe
+   * was invalidated since given version was read, in which case the key is evicted. Runs
+   * atomically for the key, and invalidation increments the version before evicting the key, so an
+   * invalidation is never overwritten by the value read or written before it.
+   */
+  private void putIfNotInvalidated(String key, String val, long ttlNanos, long version) {
+    int stripe = stripe(key);
+    localCache.asMap().compute(key, (k, existing) -> versions.get(stripe) == version
+        ? new LocalEntry(val, ttlNanos) : null);
+  }
+
+  private Map<String, Long> getVersions(Collection<String> keys) {
+    Map<String, Long> keyVersions = new HashMap<>();
+    keys.forEach(key -> keyVersions.put(key, versions.get(stripe(key))));
+    return keyVersions;
+  }
+
+  private long localTtlNanos(long ttlSeconds) {
+    return Math.min(localTtlNanos, TimeUnit.SECONDS.toNanos(ttlSeconds));
+  }
+
+  private static int stripe(String key) {
+    return Math.floorMod(key.hashCode(), VERSION_STRIPES);
+  }
+
+  private void publishInvalidation(String key) {
+    invalidationChannel.publish(instanceId + MESSAGE_SEPARATOR + key);
+  }
+
+  private void onInvalidation(String message) {
+    int separatorIndex = message.indexOf(MESSAGE_SEPARATOR);
+    if (separatorIndex < 0 || message.startsWith(instanceId + MESSAGE_SEPARATOR)) {
+      return;
+    }
+    String key = message.substring(separatorIndex + 1);
+    versions.incrementAndGet(stripe(key));
+    localCache.invalidate(key);
+  }
+
+  private static class LocalEntry {
+
+    private final String value;
+    private final long ttlNanos;
+
+    private LocalEntry(String value, long ttlNanos) {
+      this.value = value;
+      this.ttlNanos = ttlNanos;
+    }
+  }
+
+  private static class LocalEntryExpiry implements Expiry<String, LocalEntry> {
+
+    @Override
+    public long expireAfterCreate(String key, LocalEntry entry, long currentTime) {
+      return entry.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, LocalEntry entry, long currentTime,
+        long currentDuration) {
+      return entry.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterRead(String key, LocalEntry entry, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
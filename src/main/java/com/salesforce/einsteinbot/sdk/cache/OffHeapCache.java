@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * OffHeapCache is an implementation of {@link Cache} which keeps entries in direct memory, outside
+ * of the garbage collected heap. It is meant for single instance deployments that keep millions of
+ * session mappings, which would otherwise put gigabytes on the heap.
+ * <p>
+ * Memory for capacity entries is allocated up front, as fixed size slots of an open addressing
+ * hash table split in segments. Keys and values longer than the slot allows are rejected. When
+ * there is no free slot near the slot of a key, the entry closest to expiry is replaced. Entries
+ * expire given ttlSeconds after they are set. A segment is rehashed in place when a quarter of its
+ * slots hold removed entries, so that lookups do not probe past them. Hit, miss and eviction counts
+ * are available from {@link #getHitCount()}, {@link #getMissCount()} and
+ * {@link #getEvictionCount()}. Direct memory is limited by -XX:MaxDirectMemorySize,
+ * which defaults to the maximum heap size.
+ */
+public class OffHeapCache implements SnapshotableCache {
+
+  public static final int DEFAULT_MAX_KEY_BYTES = 128;
+  public static final int DEFAULT_MAX_VALUE_BYTES = 128;
+
+  private static final int MAX_SEGMENTS = 64;
+  private static final long MAX_SEGMENT_BYTES = 1L << 30;
+  private static final int MAX_PROBES = 32;
+  // share of removed slots at which a segment is rehashed.
+  private static final int REHASH_REMOVED_DIVISOR = 4;
+
+  private static final byte EMPTY = 0;
+  private static final byte USED = 1;
+  private static final byte REMOVED = 2;
+
+  // slot layout: state, expiresAt, key hash, key length, value length, key bytes, value bytes.
+  private static final int STATE_OFFSET = 0;
+  private static final int EXPIRES_AT_OFFSET = 1;
+  private static final int HASH_OFFSET = 9;
+  private static final int KEY_LENGTH_OFFSET = 13;
+  private static final int VALUE_LENGTH_OFFSET = 15;
+  private static final int KEY_OFFSET = 17;
+
+  private final long ttlMillis;
+  private final int maxKeyBytes;
+  private final int maxValueBytes;
+  private final int slotSize;
+  private final Segment[] segments;
+  private final LongSupplier clock;
+
+  /**
+   * Creates cache for session mappings, with keys of up to {@value #DEFAULT_MAX_KEY_BYTES} bytes
+   * and values of up to {@value #DEFAULT_MAX_VALUE_BYTES} bytes.
+   *
+   * @param ttlSeconds - Expiry time of entries set without ttlSeconds.
+   * @param capacity   - Number of entries to allocate memory for.
+   */
+  public OffHeapCache(long ttlSeconds, int capacity) {
+    this(ttlSeconds, capacity, DEFAULT_MAX_KEY_BYTES, DEFAULT_MAX_VALUE_BYTES);
+  }
+
+  /**
+   * @param ttlSeconds    - Expiry time of entries set without ttlSeconds.
+   * @param capacity      - Number of entries to allocate memory for.
+   * @param maxKeyBytes   - Maximum length of UTF-8 encoded keys.
+   * @param maxValueBytes - Maximum length of UTF-8 encoded values.
+   */
+  public OffHeapCache(long ttlSeconds, int capacity, int maxKeyBytes, int maxValueBytes) {
+    this(ttlSeconds, capacity, maxKeyBytes, maxValueBytes, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  OffHeapCache(long ttlSeconds, int capacity, int maxKeyBytes, int maxValueBytes,
+      LongSupplier clock) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity should be positive");
+    }
+    if (maxKeyBytes <= 0 || maxKeyBytes > Short.MAX_VALUE
+        || maxValueBytes <= 0 || maxValueBytes > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("maxKeyBytes and maxValueBytes should be between 1 and "
+          + Short.MAX_VALUE);
+    }
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.maxKeyBytes = maxKeyBytes;
+    this.maxValueBytes = maxValueBytes;
+    this.slotSize = KEY_OFFSET + maxKeyBytes + maxValueBytes;
+    this.clock = clock;
+
+    int segmentCount = (int) Math.max(Math.min(MAX_SEGMENTS, capacity),
+        ((long) capacity * slotSize + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+    int slotsPerSegment = (capacity + segmentCount - 1) / segmentCount;
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(slotsPerSegment);
+    }
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    byte[] keyBytes = toKeyBytes(key);
+    int hash = hash(keyBytes);
+    return Optional.ofNullable(segmentFor(hash).get(keyBytes, hash, clock.getAsLong()))
+        .map(valueBytes -> new String(valueBytes, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void set(String key, String val) {
+    setWithTtlMillis(key, val, ttlMillis);
+  }
+
+  @Override
+  public void set(String key, String val, long ttlSeconds) {
+    setWithTtlMillis(key, val, TimeUnit.SECONDS.toMillis(ttlSeconds));
+  }
+
+  private void setWithTtlMillis(String key, String val, long entryTtlMillis) {
+    byte[] keyBytes = toKeyBytes(key);
+    int hash = hash(keyBytes);
+    long now = clock.getAsLong();
+    segmentFor(hash).put(keyBytes, hash, toValueBytes(val), now + entryTtlMillis, now, false);
+  }
+
+  @Override
+  public void remove(String key) {
+    byte[] keyBytes = toKeyBytes(key);
+    int hash = hash(keyBytes);
+    segmentFor(hash).remove(keyBytes, hash, clock.getAsLong());
+  }
+
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlSeconds) {
+    byte[] keyBytes = toKeyBytes(key);
+    int hash = hash(keyBytes);
+    long now = clock.getAsLong();
+    return segmentFor(hash).put(keyBytes, hash, toValueBytes(val),
+        now + TimeUnit.SECONDS.toMillis(ttlSeconds), now, true);
+  }
+
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    long now = clock.getAsLong();
+    for (String key : keys) {
+      byte[] keyBytes = toKeyBytes(key);
+      int hash = hash(keyBytes);
+      segmentFor(hash).refresh(keyBytes, hash, now + ttlMillis, now);
+    }
+  }
+
+  /**
+   * Entries of a segment are copied while it is locked, and given to consumer after it is unlocked,
+   * so that a slow consumer, like one writing to disk, does not block the segment.
+   */
+  @Override
+  public void forEachEntry(EntryConsumer consumer) {
+    long now = clock.getAsLong();
+    for (Segment segment : segments) {
+      segment.copyEntries(now).forEach(entry -> consumer.accept(entry.key, entry.value,
+          entry.expiresAtMillis, false));
+    }
+  }
+
+  /**
+   * @return Number of lookups that found a live entry since this cache was created.
+   */
+  public long getHitCount() {
+    return sum(segment -> segment.hits);
+  }
+
+  /**
+   * @return Number of lookups that found no live entry since this cache was created.
+   */
+  public long getMissCount() {
+    return sum(segment -> segment.misses);
+  }
+
+  /**
+   * @return Number of entries replaced before expiry since this cache was created, because there
+   * was no free slot near the slot of another key.
+   */
+  public long getEvictionCount() {
+    return sum(segment -> segment.evictions);
+  }
+
+  private long sum(ToLongFunction<Segment> counter) {
+    long total = 0;
+    for (Segment segment : segments) {
+      segment.lock.lock();
+      try {
+        total += counter.applyAsLong(segment);
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+    return total;
+  }
+
+  private byte[] toKeyBytes(String key) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    if (keyBytes.length > maxKeyBytes) {
+      throw new IllegalArgumentException("Key is longer than " + maxKeyBytes + " bytes: " + key);
+    }
+    return keyBytes;
+  }
+
+  private byte[] toValueBytes(String val) {
+    byte[] valueBytes = val.getBytes(StandardCharsets.UTF_8);
+    if (valueBytes.length > maxValueBytes) {
+      throw new IllegalArgumentException("Value is longer than " + maxValueBytes + " bytes");
+    }
+    return valueBytes;
+  }
+
+  private static int hash(byte[] keyBytes) {
+    return Hashing.murmur3_32().hashBytes(keyBytes).asInt();
+  }
+
+  private Segment segmentFor(int hash) {
+    return segments[(int) ((hash & 0xffffffffL) % segments.length)];
+  }
+
+  /**
+   * Part of the hash table with its own memory and lock, so that operations on different segments
+   * do not contend.
+   */
+  private class Segment {
+
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int probes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock.
+    private int removed;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private Segment(int slots) {
+      this.buffer = ByteBuffer.allocateDirect(slots * slotSize);
+      this.slots = slots;
+      this.probes = Math.min(MAX_PROBES, slots);
+    }
+
+    private byte[] get(byte[] key, int hash, long now) {
+      lock.lock();
+      try {
+        int offset = find(key, hash);
+        if (offset < 0) {
+          misses++;
+          return null;
+        }
+        if (isExpired(offset, now)) {
+          misses++;
+          markRemoved(offset, now);
+          return null;
+        }
+        hits++;
+        byte[] value = new byte[buffer.getShort(offset + VALUE_LENGTH_OFFSET)];
+        buffer.get(offset + KEY_OFFSET + maxKeyBytes, value);
+        return value;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * @return false if onlyIfAbsent and key has an entry that is not expired, true otherwise.
+     */
+    private boolean put(byte[] key, int hash, byte[] value, long expiresAt, long now,
+        boolean onlyIfAbsent) {
+      lock.lock();
+      try {
+        int offset = findForInsert(key, hash, now);
+        if (onlyIfAbsent && buffer.get(offset + STATE_OFFSET) == USED
+            && matches(offset, key, hash) && !isExpired(offset, now)) {
+          return false;
+        }
+        byte state = buffer.get(offset + STATE_OFFSET);
+        if (state == REMOVED) {
+          removed--;
+        } else if (state == USED && !matches(offset, key, hash) && !isExpired(offset, now)) {
+          evictions++;
+        }
+        buffer.putLong(offset + EXPIRES_AT_OFFSET, expiresAt);
+        buffer.putInt(offset + HASH_OFFSET, hash);
+        buffer.putShort(offset + KEY_LENGTH_OFFSET, (short) key.length);
+        buffer.putShort(offset + VALUE_LENGTH_OFFSET, (short) value.length);
+        buffer.put(offset + KEY_OFFSET, key);
+        buffer.put(offset + KEY_OFFSET + maxKeyBytes, value);
+        buffer.put(offset + STATE_OFFSET, USED);
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void refresh(byte[] key, int hash, long expiresAt, long now) {
+      lock.lock();
+      try {
+        int offset = find(key, hash);
+        if (offset >= 0 && !isExpired(offset, now)) {
+          buffer.putLong(offset + EXPIRES_AT_OFFSET, expiresAt);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void remove(byte[] key, int hash, long now) {
+      lock.lock();
+      try {
+        int offset = find(key, hash);
+        if (offset >= 0) {
+          markRemoved(offset, now);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Slot is not emptied, so that lookups keep probing past it, until the segment is rehashed.
+     */
+    private void markRemoved(int offset, long now) {
+      buffer.put(offset + STATE_OFFSET, REMOVED);
+      removed++;
+      if (removed >= Math.max(1, slots / REHASH_REMOVED_DIVISOR)) {
+        rehash(now);
+      }
+    }
+
+    /**
+     * Empties removed and expired slots, then moves every entry to the first free slot of its probe
+     * sequence, until no entry moves. Entries only move towards their start slot, so it ends, and
+     * afterwards no entry has a free slot before it in its probe sequence.
+     */
+    private void rehash(long now) {
+      int firstEmpty = -1;
+      for (int slot = 0; slot < slots; slot++) {
+        int offset = slot * slotSize;
+        byte state = buffer.get(offset + STATE_OFFSET);
+        if (state == REMOVED || (state == USED && isExpired(offset, now))) {
+          buffer.put(offset + STATE_OFFSET, EMPTY);
+          state = EMPTY;
+        }
+        if (state == EMPTY && firstEmpty < 0) {
+          firstEmpty = slot;
+        }
+      }
+      removed = 0;
+      if (firstEmpty < 0) {
+        return;
+      }
+      byte[] entry = new byte[slotSize];
+      boolean moved = true;
+      while (moved) {
+        moved = false;
+        for (int i = 0; i < slots; i++) {
+          int offset = ((firstEmpty + i) % slots) * slotSize;
+          if (buffer.get(offset + STATE_OFFSET) != USED) {
+            continue;
+          }
+          buffer.get(offset, entry);
+          buffer.put(offset + STATE_OFFSET, EMPTY);
+          byte[] key = new byte[buffer.getShort(offset + KEY_LENGTH_OFFSET)];
+          buffer.get(offset + KEY_OFFSET, key);
+          int newOffset = findForInsert(key, buffer.getInt(offset + HASH_OFFSET), now);
+          buffer.put(newOffset, entry);
+          moved |= newOffset != offset;
+        }
+      }
+    }
+
+    private List<SnapshotEntry> copyEntries(long now) {
+      List<SnapshotEntry> entries = new ArrayList<>();
+      lock.lock();
+      try {
+        for (int slot = 0; slot < slots; slot++) {
+          int offset = slot * slotSize;
+          if (buffer.get(offset + STATE_OFFSET) == USED && !isExpired(offset, now)) {
+            byte[] key = new byte[buffer.getShort(offset + KEY_LENGTH_OFFSET)];
+            buffer.get(offset + KEY_OFFSET, key);
+            byte[] value = new byte[buffer.getShort(offset + VALUE_LENGTH_OFFSET)];
+            buffer.get(offset + KEY_OFFSET + maxKeyBytes, value);
+            entries.add(new SnapshotEntry(new String(key, StandardCharsets.UTF_8),
+                new String(value, StandardCharsets.UTF_8),
+                buffer.getLong(offset + EXPIRES_AT_OFFSET)));
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      return entries;
+    }
+
+    private int find(byte[] key, int hash) {
+      int start = startSlot(hash);
+      for (int i = 0; i < probes; i++) {
+        int offset = ((start + i) % slots) * slotSize;
+        byte state = buffer.get(offset + STATE_OFFSET);
+        if (state == EMPTY) {
+          return -1;
+        }
+        if (state == USED && matches(offset, key, hash)) {
+          return offset;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Returns slot of the key if present, otherwise first free or expired slot. If there is none,
+     * returns slot of the entry closest to expiry, to be replaced.
+     */
+    private int findForInsert(byte[] key, int hash, long now) {
+      int start = startSlot(hash);
+      int freeOffset = -1;
+      int victimOffset = -1;
+      long victimExpiresAt = Long.MAX_VALUE;
+      for (int i = 0; i < probes; i++) {
+        int offset = ((start + i) % slots) * slotSize;
+        byte state = buffer.get(offset + STATE_OFFSET);
+        if (state == EMPTY) {
+          return freeOffset >= 0 ? freeOffset : offset;
+        }
+        if (state == USED && matches(offset, key, hash)) {
+          return offset;
+        }
+        if (state == REMOVED || isExpired(offset, now)) {
+          freeOffset = freeOffset >= 0 ? freeOffset : offset;
+        } else if (buffer.getLong(offset + EXPIRES_AT_OFFSET) < victimExpiresAt) {
+          victimOffset = offset;
+          victimExpiresAt = buffer.getLong(offset + EXPIRES_AT_OFFSET);
+        }
+      }
+      return freeOffset >= 0 ? freeOffset : victimOffset;
+    }
+
+    private int startSlot(int hash) {
+      return (int) (((hash & 0xffffffffL) / segments.length) % slots);
+    }
+
+    private boolean matches(int offset, byte[] key, int hash) {
+      if (buffer.getInt(offset + HASH_OFFSET) != hash
+          || buffer.getShort(offset + KEY_LENGTH_OFFSET) != key.length) {
+        return false;
+      }
+      byte[] storedKey = new byte[key.length];
+      buffer.get(offset + KEY_OFFSET, storedKey);
+      return Arrays.equals(storedKey, key);
+    }
+
+    private boolean isExpired(int offset, long now) {
+      return buffer.getLong(offset + EXPIRES_AT_OFFSET) <= now;
+    }
+  }
+
+  private static class SnapshotEntry {
+
+    private final String key;
+    private final String value;
+    private final long expiresAtMillis;
+
+    private SnapshotEntry(String key, String value, long expiresAtMillis) {
+      this.key = key;
+      this.value = value;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
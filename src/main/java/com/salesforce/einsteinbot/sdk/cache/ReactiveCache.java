@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveCache is the non-blocking counterpart of {@link Cache}. It is used by
+ * ReactiveSessionManagedChatbotClient so that session lookup and update can be composed with the
+ * bot request without blocking a thread.
+ * <p>
+ * Existing {@link Cache} implementations can be used through {@link ReactiveCacheAdapter}.
+ */
+public interface ReactiveCache {
+
+  /**
+   * Get value associated with given key.
+   * @param key
+   * @return Mono emitting the value, or completing empty if key is not found.
+   */
+  Mono<String> get(String key);
+
+  /**
+   * Add or updates given key and value in Cache
+   * @param key
+   * @param val
+   */
+  Mono<Void> set(String key, String val);
+
+  /**
+   * Add or updates given key and value in Cache and expires the entry after given ttlSeconds
+   * @param key
+   * @param val
+   * @param ttlSeconds
+   */
+  Mono<Void> set(String key, String val, long ttlSeconds);
+
+  /**
+   * Removes entry associated with given key from Cache.
+   * @param key
+   */
+  Mono<Void> remove(String key);
+
+  /**
+   * Get values associated with given keys. Default implementation gets them concurrently one by
+   * one. Implementations should override it to get them in one round trip.
+   *
+   * @param keys
+   * @return Mono emitting values of keys that are found. Keys that are not found are absent from
+   * emitted Map.
+   */
+  default Mono<Map<String, String>> getAll(Collection<String> keys) {
+    return Flux.fromIterable(keys)
+        .flatMap(key -> get(key).map(val -> Map.entry(key, val)))
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  /**
+   * Resets expiry of entries with given keys to the default TTL of this Cache, without changing
+   * their values. Keys that are not present are ignored. Default implementation gets and sets
+   * every entry, which is not atomic. Caches should override it with an atomic expiry update.
+   *
+   * @param keys
+   */
+  default Mono<Void> refreshTtl(Collection<String> keys) {
+    return getAll(keys)
+        .flatMapMany(values -> Flux.fromIterable(values.entrySet()))
+        .flatMap(entry -> set(entry.getKey(), entry.getValue()))
+        .then();
+  }
+}
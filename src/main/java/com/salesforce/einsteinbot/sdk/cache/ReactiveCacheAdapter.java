@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ReactiveCacheAdapter exposes a blocking {@link Cache} as a {@link ReactiveCache}. Cache calls
+ * are run on the given scheduler, which defaults to {@link Schedulers#boundedElastic()} so that
+ * network bound caches like {@link RedisCache} never block the caller's thread.
+ * <p>
+ * For caches that never block, like {@link InMemoryCache}, use {@link Schedulers#immediate()}
+ * to run cache calls on the subscribing thread.
+ */
+public class ReactiveCacheAdapter implements ReactiveCache {
+
+  private final Cache cache;
+  private final Scheduler scheduler;
+
+  public ReactiveCacheAdapter(Cache cache) {
+    this(cache, Schedulers.boundedElastic());
+  }
+
+  public ReactiveCacheAdapter(Cache cache, Scheduler scheduler) {
+    Objects.requireNonNull(cache);
+    Objects.requireNonNull(scheduler);
+    this.cache = cache;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Mono<String> get(String key) {
+    return Mono.fromCallable(() -> cache.get(key).orElse(null))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> set(String key, String val) {
+    return Mono.<Void>fromRunnable(() -> cache.set(key, val))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> set(String key, String val, long ttlSeconds) {
+    return Mono.<Void>fromRunnable(() -> cache.set(key, val, ttlSeconds))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> remove(String key) {
+    return Mono.<Void>fromRunnable(() -> cache.remove(key))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Map<String, String>> getAll(Collection<String> keys) {
+    return Mono.fromCallable(() -> cache.getAll(keys))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> refreshTtl(Collection<String> keys) {
+    return Mono.<Void>fromRunnable(() -> cache.refreshTtl(keys))
+        .subscribeOn(scheduler);
+  }
+}
@@ -10,21 +10,40 @@ package com.salesforce.einsteinbot.sdk.cache;
 import com.google.common.annotations.VisibleForTesting;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import redis.clients.jedis.Jedis;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisURIHelper;
 
 /**
  * RedisCache is an implementation of {@link Cache} that uses Redis as its backing cache. Its
  * default ttl is 259,140 seconds (which is 1 minute short of 3 days). This number was chosen to be
  * just under how long Einstein Bots cache sessions for.
+ * <p>
+ * Besides a single Redis, {@link #with()} creates a RedisCache that shards entries across several
+ * Redis primaries by consistent hashing of their keys, optionally reading from their replicas, or
+ * one that uses Redis Cluster.
  */
 public class RedisCache implements Cache {
 
   private static final Long DEFAULT_TTL_SECONDS = 259140L; // 2 days, 23 hours, 59 minutes
+  private static final int CLUSTER_MAX_ATTEMPTS = 5;
 
-  private JedisPool jedisPool;
+  private RedisNodes nodes;
   private long ttlSeconds;
 
   /**
@@ -40,48 +59,225 @@ public class RedisCache implements Cache {
    * @param redisUrl   - Url of Redis (i.e. redis://127.0.0.1:6379)
    */
   public RedisCache(Long ttlSeconds, String redisUrl) {
+    this(ttlSeconds, Map.of(redisUrl, new Shard(createJedisPool(redisUrl), List.of())), false);
+  }
+
+  @VisibleForTesting
+  RedisCache(long ttlSeconds, Map<String, Shard> shards, boolean readFromReplicas) {
+    this(ttlSeconds, new ShardedRedisNodes(shards, readFromReplicas));
+  }
+
+  @VisibleForTesting
+  RedisCache(long ttlSeconds, JedisCluster jedisCluster) {
+    this(ttlSeconds, new ClusterRedisNodes(jedisCluster));
+  }
+
+  private RedisCache(long ttlSeconds, RedisNodes nodes) {
     this.ttlSeconds = ttlSeconds;
+    this.nodes = nodes;
+  }
 
-    URI uri;
+  public static RedisCacheBuilder with() {
+    return new RedisCacheBuilder();
+  }
+
+  private static URI toURI(String redisUrl) {
     try {
-      uri = new URI(redisUrl);
+      return new URI(redisUrl);
     } catch (URISyntaxException e) {
       throw new RuntimeException(e);
     }
+  }
 
-    this.jedisPool = new JedisPool(new JedisPoolConfig(), uri);
+  private static JedisPool createJedisPool(String redisUrl) {
+    return new JedisPool(new JedisPoolConfig(), toURI(redisUrl));
   }
 
   @VisibleForTesting
   void setJedisPool(JedisPool jedisPool) {
-    this.jedisPool = jedisPool;
+    this.nodes = new ShardedRedisNodes(Map.of("redis", new Shard(jedisPool, List.of())), false);
   }
 
   @Override
   public Optional<String> get(String key) {
-    try (Jedis jedis = this.jedisPool.getResource()) {
-      return Optional.ofNullable(jedis.get(key));
-    }
+    return Optional.ofNullable(nodes.get(key));
   }
 
   @Override
   public void set(String key, String val) {
-    try (Jedis jedis = this.jedisPool.getResource()) {
-      jedis.setex(key, ttlSeconds, val);
-    }
+    set(key, val, ttlSeconds);
   }
 
   @Override
   public void set(String key, String val, long ttlInSeconds) {
-    try (Jedis jedis = this.jedisPool.getResource()) {
-      jedis.setex(key, ttlInSeconds, val);
-    }
+    nodes.setex(key, ttlInSeconds, val);
   }
 
   @Override
   public void remove(String key) {
-    try (Jedis jedis = this.jedisPool.getResource()) {
-      jedis.del(key);
+    nodes.del(key);
+  }
+
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlInSeconds) {
+    return "OK".equals(nodes.set(key, val, SetParams.setParams().nx().ex((int) ttlInSeconds)));
+  }
+
+  /**
+   * Gets all values with a single MGET per shard. With Redis Cluster, GET commands are pipelined
+   * to each node.
+   */
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return new HashMap<>();
+    }
+    return nodes.getAll(keys);
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries) {
+    setAll(entries, ttlSeconds);
+  }
+
+  /**
+   * Sets all values with pipelined SETEX commands, so they are sent in one round trip per shard,
+   * or per node with Redis Cluster.
+   */
+  @Override
+  public void setAll(Map<String, String> entries, long ttlInSeconds) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    nodes.setexAll(entries, ttlInSeconds);
+  }
+
+  /**
+   * Removes all entries with a single multi-key DEL per shard. With Redis Cluster, DEL commands
+   * are pipelined to each node.
+   */
+  @Override
+  public void removeAll(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    nodes.delAll(keys);
+  }
+
+  /**
+   * Refreshes all entries with pipelined EXPIRE commands, so they are sent in one round trip per
+   * shard, or per node with Redis Cluster.
+   */
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    nodes.expireAll(keys, ttlSeconds);
+  }
+
+  /**
+   * A Redis primary and its replicas.
+   */
+  static final class Shard {
+
+    private final JedisPool primary;
+    private final List<JedisPool> replicas;
+
+    Shard(JedisPool primary, List<JedisPool> replicas) {
+      this.primary = primary;
+      this.replicas = replicas;
+    }
+
+    JedisPool getPrimary() {
+      return primary;
+    }
+
+    JedisPool getReadPool(boolean readFromReplicas) {
+      if (!readFromReplicas || replicas.isEmpty()) {
+        return primary;
+      }
+      return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+    }
+  }
+
+  /**
+   * RedisCacheBuilder provides Fluent API to create a RedisCache that shards entries across
+   * several Redis primaries, or that uses Redis Cluster.
+   */
+  public static class RedisCacheBuilder {
+
+    private long ttlSeconds = DEFAULT_TTL_SECONDS;
+    private final Map<String, List<String>> shardUrls = new LinkedHashMap<>();
+    private final Set<String> clusterUrls = new LinkedHashSet<>();
+    private boolean readFromReplicas;
+
+    RedisCacheBuilder() {
+    }
+
+    public RedisCacheBuilder ttlSeconds(long ttlSeconds) {
+      this.ttlSeconds = ttlSeconds;
+      return this;
+    }
+
+    /**
+     * Adds a Redis primary, with its replicas, to the primaries entries are sharded across. Keys
+     * are mapped to primaries by consistent hashing of their urls, so all instances sharing the
+     * cache should be given the same primary urls.
+     */
+    public RedisCacheBuilder shard(String primaryUrl, String... replicaUrls) {
+      Objects.requireNonNull(primaryUrl);
+      shardUrls.put(primaryUrl, List.of(replicaUrls));
+      return this;
+    }
+
+    /**
+     * Uses Redis Cluster. Cluster topology is discovered from given nodes, and requests are sent
+     * to the primary of the hash slot of each key.
+     */
+    public RedisCacheBuilder cluster(String... nodeUrls) {
+      clusterUrls.addAll(List.of(nodeUrls));
+      return this;
+    }
+
+    /**
+     * Reads {@link RedisCache#get} and {@link RedisCache#getAll} from a replica of the shard, when
+     * it has replicas. Replicas are updated asynchronously, so an entry may not be found right
+     * after it was set. Supported with shards only.
+     */
+    public RedisCacheBuilder readFromReplicas(boolean readFromReplicas) {
+      this.readFromReplicas = readFromReplicas;
+      return this;
+    }
+
+    public RedisCache build() {
+      if (shardUrls.isEmpty() == clusterUrls.isEmpty()) {
+        throw new IllegalArgumentException("Please provide either shards or cluster nodes");
+      }
+      if (!clusterUrls.isEmpty()) {
+        if (readFromReplicas) {
+          throw new IllegalArgumentException("readFromReplicas is supported with shards only");
+        }
+        return new RedisCache(ttlSeconds, createJedisCluster());
+      }
+      Map<String, Shard> shards = new LinkedHashMap<>();
+      shardUrls.forEach((primaryUrl, replicaUrls) -> shards.put(primaryUrl,
+          new Shard(createJedisPool(primaryUrl), replicaUrls.stream()
+              .map(RedisCache::createJedisPool)
+              .collect(Collectors.toList()))));
+      return new RedisCache(ttlSeconds, shards, readFromReplicas);
+    }
+
+    private JedisCluster createJedisCluster() {
+      List<URI> uris = clusterUrls.stream()
+          .map(RedisCache::toURI)
+          .collect(Collectors.toList());
+      Set<HostAndPort> nodes = uris.stream()
+          .map(uri -> new HostAndPort(uri.getHost(), uri.getPort()))
+          .collect(Collectors.toSet());
+      return new JedisCluster(nodes, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT,
+          CLUSTER_MAX_ATTEMPTS, JedisURIHelper.getPassword(uris.get(0)),
+          new JedisPoolConfig());
     }
   }
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * RedisHashBucketCache is an implementation of {@link Cache} that stores entries as fields of a
+ * fixed number of Redis hashes, instead of one top level Redis key per entry. Redis stores small
+ * hashes in a compact encoding, which avoids the memory overhead of a top level key for every
+ * session. Buckets should be small enough to keep that encoding, i.e. at most
+ * hash-max-listpack-entries (128 by default) entries each, so bucketCount should be about the
+ * expected number of entries divided by 100.
+ * <p>
+ * With field TTL, which requires Redis 7.4 or later, every field expires on its own using HEXPIRE.
+ * Otherwise, values are stored with their expiry time, and reads skip expired fields. Every
+ * {@value #SWEEP_INTERVAL_WRITES}th write also removes all expired fields of the bucket it writes
+ * to, since a bucket written regularly never expires as a whole. A bucket expires when no entry
+ * was set in it for the TTL of the cache.
+ */
+public class RedisHashBucketCache implements Cache {
+
+  private static final Long DEFAULT_TTL_SECONDS = 259140L; // 2 days, 23 hours, 59 minutes
+  private static final String BUCKET_KEY_PREFIX = "chatbot-bucket-";
+  private static final char EXPIRY_SEPARATOR = ':';
+  private static final int SWEEP_INTERVAL_WRITES = 16;
+
+  // Sets field only if absent and sets its expiry. Returns 1 when field was set.
+  private static final String SET_IF_ABSENT_WITH_FIELD_TTL_SCRIPT =
+      "if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 1 then "
+          + "redis.call('HEXPIRE', KEYS[1], ARGV[3], 'FIELDS', 1, ARGV[1]) return 1 end "
+          + "return 0";
+  // Same, for values stored with their expiry time. A field that expired, or has no expiry time,
+  // counts as absent.
+  private static final String SET_IF_ABSENT_SCRIPT =
+      "local val = redis.call('HGET', KEYS[1], ARGV[1]) "
+          + "local expiresAt = val and tonumber(string.match(val, '^(%d+):')) "
+          + "if expiresAt and expiresAt > tonumber(ARGV[4]) then "
+          + "return 0 end "
+          + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) "
+          + "if redis.call('TTL', KEYS[1]) < tonumber(ARGV[3]) then "
+          + "redis.call('EXPIRE', KEYS[1], ARGV[3]) end "
+          + "return 1";
+  // Removes fields that expired, or have no expiry time. Buckets are small, so it is bounded.
+  private static final String SWEEP_SCRIPT =
+      "local fields = redis.call('HGETALL', KEYS[1]) "
+          + "local removed = 0 "
+          + "for i = 1, #fields, 2 do "
+          + "local expiresAt = tonumber(string.match(fields[i + 1], '^(%d+):')) "
+          + "if not expiresAt or expiresAt <= tonumber(ARGV[1]) then "
+          + "redis.call('HDEL', KEYS[1], fields[i]) removed = removed + 1 end end "
+          + "return removed";
+  // Replaces expiry time of fields ARGV[4..] in buckets KEYS[1..] with ARGV[2], unless they
+  // expired, keeping their values. Extends expiry of their buckets to ARGV[3] seconds.
+  private static final String REFRESH_TTL_SCRIPT =
+      "for i = 1, #KEYS do "
+          + "local val = redis.call('HGET', KEYS[i], ARGV[i + 3]) "
+          + "local expiresAt = val and string.match(val, '^(%d+):') "
+          + "if expiresAt and tonumber(expiresAt) > tonumber(ARGV[1]) then "
+          + "redis.call('HSET', KEYS[i], ARGV[i + 3], ARGV[2] .. string.sub(val, #expiresAt + 1)) "
+          + "if redis.call('TTL', KEYS[i]) < tonumber(ARGV[3]) then "
+          + "redis.call('EXPIRE', KEYS[i], ARGV[3]) end end end "
+          + "return 0";
+
+  private enum HashFieldCommand implements ProtocolCommand {
+    HEXPIRE;
+
+    private final byte[] raw = SafeEncoder.encode(name());
+
+    @Override
+    public byte[] getRaw() {
+      return raw;
+    }
+  }
+
+  private final JedisPool jedisPool;
+  private final long ttlSeconds;
+  private final int bucketCount;
+  private final boolean fieldTtl;
+  private final LongSupplier clock;
+  private final AtomicLong writes = new AtomicLong();
+
+  /**
+   * @param ttlSeconds  - Cache expiry time. The recommended value here is 259,140 seconds.
+   * @param redisUrl    - Url of Redis (i.e. redis://127.0.0.1:6379)
+   * @param bucketCount - Number of hashes entries are spread across.
+   * @param fieldTtl    - Whether to expire each field with HEXPIRE. Requires Redis 7.4 or later.
+   */
+  public RedisHashBucketCache(Long ttlSeconds, String redisUrl, int bucketCount,
+      boolean fieldTtl) {
+    this(ttlSeconds, createJedisPool(redisUrl), bucketCount, fieldTtl,
+        System::currentTimeMillis);
+  }
+
+  /**
+   * Uses the default ttl of 259,140 seconds.
+   */
+  public RedisHashBucketCache(String redisUrl, int bucketCount, boolean fieldTtl) {
+    this(DEFAULT_TTL_SECONDS, redisUrl, bucketCount, fieldTtl);
+  }
+
+  @VisibleForTesting
+  RedisHashBucketCache(Long ttlSeconds, JedisPool jedisPool, int bucketCount, boolean fieldTtl,
+      LongSupplier clock) {
+    if (bucketCount < 1) {
+      throw new IllegalArgumentException("bucketCount should be at least 1");
+    }
+    this.ttlSeconds = ttlSeconds;
+    this.jedisPool = jedisPool;
+    this.bucketCount = bucketCount;
+    this.fieldTtl = fieldTtl;
+    this.clock = clock;
+  }
+
+  private static JedisPool createJedisPool(String redisUrl) {
+    URI uri;
+    try {
+      uri = new URI(redisUrl);
+    } catch (URISyntaxException e) {
+      throw new RuntimeException(e);
+    }
+    return new JedisPool(new JedisPoolConfig(), uri);
+  }
+
+  @VisibleForTesting
+  String getBucketKey(String key) {
+    int hash = Hashing.murmur3_32().hashString(key, StandardCharsets.UTF_8).asInt();
+    return BUCKET_KEY_PREFIX + Math.floorMod(hash, bucketCount);
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    String bucketKey = getBucketKey(key);
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      // expired field is not removed here, as it could be set again meanwhile. Sweeps remove it.
+      return decode(jedis.hget(bucketKey, key));
+    }
+  }
+
+  @Override
+  public void set(String key, String val) {
+    set(key, val, ttlSeconds);
+  }
+
+  @Override
+  public void set(String key, String val, long ttlInSeconds) {
+    setAll(Map.of(key, val), ttlInSeconds);
+  }
+
+  @Override
+  public void remove(String key) {
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      jedis.hdel(getBucketKey(key), key);
+    }
+  }
+
+  /**
+   * Sets the field with a Lua script, so that it is atomic.
+   */
+  @Override
+  public boolean setIfAbsent(String key, String val, long ttlInSeconds) {
+    String bucketKey = getBucketKey(key);
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Object result;
+      if (fieldTtl) {
+        result = jedis.eval(SET_IF_ABSENT_WITH_FIELD_TTL_SCRIPT, List.of(bucketKey),
+            List.of(key, val, String.valueOf(ttlInSeconds)));
+      } else {
+        result = jedis.eval(SET_IF_ABSENT_SCRIPT, List.of(bucketKey),
+            List.of(key, encode(val, ttlInSeconds), String.valueOf(ttlInSeconds),
+                String.valueOf(nowSeconds())));
+      }
+      return Long.valueOf(1L).equals(result);
+    }
+  }
+
+  /**
+   * Gets all values with pipelined HGET commands, so they are sent in one round trip.
+   */
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    if (keys.isEmpty()) {
+      return values;
+    }
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      Map<String, Response<String>> responses = new HashMap<>();
+      keys.forEach(key -> responses.put(key, pipeline.hget(getBucketKey(key), key)));
+      pipeline.sync();
+      responses.forEach((key, response) -> decode(response.get())
+          .ifPresent(val -> values.put(key, val)));
+    }
+    return values;
+  }
+
+  @Override
+  public void setAll(Map<String, String> entries) {
+    setAll(entries, ttlSeconds);
+  }
+
+  /**
+   * Sets all values with pipelined HSET commands, so they are sent in one round trip, along with
+   * sweeps of expired fields when due.
+   */
+  @Override
+  public void setAll(Map<String, String> entries, long ttlInSeconds) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      entries.forEach((key, val) -> {
+        String bucketKey = getBucketKey(key);
+        if (fieldTtl) {
+          pipeline.hset(bucketKey, key, val);
+          expireField(pipeline, bucketKey, key, ttlInSeconds);
+        } else {
+          pipeline.hset(bucketKey, key, encode(val, ttlInSeconds));
+          pipeline.expire(bucketKey, Math.max(ttlSeconds, ttlInSeconds));
+          if (writes.incrementAndGet() % SWEEP_INTERVAL_WRITES == 0) {
+            pipeline.eval(SWEEP_SCRIPT, List.of(bucketKey), List.of(String.valueOf(nowSeconds())));
+          }
+        }
+      });
+      pipeline.sync();
+    }
+  }
+
+  /**
+   * Removes all entries with pipelined HDEL commands, so they are sent in one round trip.
+   */
+  @Override
+  public void removeAll(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      keys.forEach(key -> pipeline.hdel(getBucketKey(key), key));
+      pipeline.sync();
+    }
+  }
+
+  /**
+   * With field TTL, refreshes all entries with pipelined HEXPIRE commands. Otherwise expiry is
+   * stored in values, so a Lua script replaces the expiry time of all entries atomically, without
+   * changing their values.
+   */
+  @Override
+  public void refreshTtl(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    if (!fieldTtl) {
+      List<String> bucketKeys = new ArrayList<>(keys.size());
+      List<String> args = new ArrayList<>(keys.size() + 3);
+      args.add(String.valueOf(nowSeconds()));
+      args.add(String.valueOf(nowSeconds() + ttlSeconds));
+      args.add(String.valueOf(ttlSeconds));
+      keys.forEach(key -> {
+        bucketKeys.add(getBucketKey(key));
+        args.add(key);
+      });
+      try (Jedis jedis = this.jedisPool.getResource()) {
+        jedis.eval(REFRESH_TTL_SCRIPT, bucketKeys, args);
+      }
+      return;
+    }
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      keys.forEach(key -> expireField(pipeline, getBucketKey(key), key, ttlSeconds));
+      pipeline.sync();
+    }
+  }
+
+  private void expireField(Pipeline pipeline, String bucketKey, String key, long ttlInSeconds) {
+    pipeline.sendCommand(HashFieldCommand.HEXPIRE, bucketKey, String.valueOf(ttlInSeconds),
+        "FIELDS", "1", key);
+  }
+
+  private String encode(String val, long ttlInSeconds) {
+    return (nowSeconds() + ttlInSeconds) + String.valueOf(EXPIRY_SEPARATOR) + val;
+  }
+
+  private Optional<String> decode(String stored) {
+    if (stored == null) {
+      return Optional.empty();
+    }
+    if (fieldTtl) {
+      return Optional.of(stored);
+    }
+    int separator = stored.indexOf(EXPIRY_SEPARATOR);
+    if (separator < 0 || parseExpiry(stored, separator) <= nowSeconds()) {
+      return Optional.empty();
+    }
+    return Optional.of(stored.substring(separator + 1));
+  }
+
+  // A value without a numeric expiry time, e.g. written by another encoder, counts as expired,
+  // as it does for sweeps.
+  private static long parseExpiry(String stored, int separator) {
+    try {
+      return Long.parseLong(stored, 0, separator, 10);
+    } catch (NumberFormatException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  private long nowSeconds() {
+    return clock.getAsLong() / 1000;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link InvalidationChannel} using Redis pub/sub. Messages are published without waiting for
+ * Redis, and received on Lettuce's event loop.
+ * <p>
+ * Messages published while an instance is disconnected are not delivered to it, so {@link
+ * NearCache} entries should expire after a short TTL.
+ */
+public class RedisInvalidationChannel implements InvalidationChannel, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(RedisInvalidationChannel.class);
+
+  public static final String DEFAULT_CHANNEL = "chatbot-cache-invalidation";
+
+  private final RedisClient redisClient;
+  // connection in subscribed state can not publish, so a separate connection is used for that.
+  private final StatefulRedisConnection<String, String> publishConnection;
+  private final StatefulRedisPubSubConnection<String, String> subscribeConnection;
+  private final String channel;
+  private final Map<Consumer<String>, RedisPubSubListener<String, String>> listeners =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @param redisUrl - Url of Redis (i.e. redis://127.0.0.1:6379)
+   */
+  public RedisInvalidationChannel(String redisUrl) {
+    this(redisUrl, DEFAULT_CHANNEL);
+  }
+
+  /**
+   * @param redisUrl - Url of Redis (i.e. redis://127.0.0.1:6379)
+   * @param channel  - Redis pub/sub channel name
+   */
+  public RedisInvalidationChannel(String redisUrl, String channel) {
+    this.redisClient = RedisClient.create(redisUrl);
+    this.publishConnection = redisClient.connect();
+    this.subscribeConnection = redisClient.connectPubSub();
+    this.channel = channel;
+    subscribeConnection.sync().subscribe(channel);
+  }
+
+  @VisibleForTesting
+  RedisInvalidationChannel(StatefulRedisConnection<String, String> publishConnection,
+      StatefulRedisPubSubConnection<String, String> subscribeConnection, String channel) {
+    this.redisClient = null;
+    this.publishConnection = publishConnection;
+    this.subscribeConnection = subscribeConnection;
+    this.channel = channel;
+  }
+
+  @Override
+  public void publish(String message) {
+    publishConnection.async().publish(channel, message)
+        .whenComplete((receivers, error) -> {
+          if (error != null) {
+            logger.warn("Failed to publish cache invalidation message.", error);
+          }
+        });
+  }
+
+  @Override
+  public void subscribe(Consumer<String> listener) {
+    RedisPubSubListener<String, String> pubSubListener = new RedisPubSubAdapter<>() {
+      @Override
+      public void message(String messageChannel, String message) {
+        if (channel.equals(messageChannel)) {
+          listener.accept(message);
+        }
+      }
+    };
+    listeners.put(listener, pubSubListener);
+    subscribeConnection.addListener(pubSubListener);
+  }
+
+  @Override
+  public void unsubscribe(Consumer<String> listener) {
+    RedisPubSubListener<String, String> pubSubListener = listeners.remove(listener);
+    if (pubSubListener != null) {
+      subscribeConnection.removeListener(pubSubListener);
+    }
+  }
+
+  @Override
+  public void close() {
+    subscribeConnection.close();
+    publishConnection.close();
+    if (redisClient != null) {
+      redisClient.shutdown();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Redis deployment that {@link RedisCache} sends its commands to, which decides how keys are
+ * mapped to Redis nodes and how commands for many keys are batched.
+ */
+interface RedisNodes {
+
+  String get(String key);
+
+  void setex(String key, long ttlSeconds, String val);
+
+  /**
+   * @return Reply of SET, which is "OK" when value was set.
+   */
+  String set(String key, String val, SetParams params);
+
+  void del(String key);
+
+  /**
+   * @return Values of given keys that are present.
+   */
+  Map<String, String> getAll(Collection<String> keys);
+
+  void setexAll(Map<String, String> entries, long ttlSeconds);
+
+  void delAll(Collection<String> keys);
+
+  void expireAll(Collection<String> keys, long ttlSeconds);
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import com.salesforce.einsteinbot.sdk.cache.RedisCache.Shard;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Redis primaries, optionally with replicas, that entries are sharded across by consistent hashing
+ * of their keys. Commands for many keys are sent in one round trip per shard.
+ */
+final class ShardedRedisNodes implements RedisNodes {
+
+  private final ConsistentHashRing<Shard> shards;
+  private final boolean readFromReplicas;
+
+  /**
+   * @param shards           - Shards by their primary urls.
+   * @param readFromReplicas - Whether to read from replicas of shards that have them.
+   */
+  ShardedRedisNodes(Map<String, Shard> shards, boolean readFromReplicas) {
+    this.shards = new ConsistentHashRing<>(shards);
+    this.readFromReplicas = readFromReplicas;
+  }
+
+  @Override
+  public String get(String key) {
+    try (Jedis jedis = shards.get(key).getReadPool(readFromReplicas).getResource()) {
+      return jedis.get(key);
+    }
+  }
+
+  @Override
+  public void setex(String key, long ttlSeconds, String val) {
+    try (Jedis jedis = shards.get(key).getPrimary().getResource()) {
+      jedis.setex(key, ttlSeconds, val);
+    }
+  }
+
+  @Override
+  public String set(String key, String val, SetParams params) {
+    try (Jedis jedis = shards.get(key).getPrimary().getResource()) {
+      return jedis.set(key, val, params);
+    }
+  }
+
+  @Override
+  public void del(String key) {
+    try (Jedis jedis = shards.get(key).getPrimary().getResource()) {
+      jedis.del(key);
+    }
+  }
+
+  /**
+   * Gets all values with a single MGET per shard.
+   */
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    groupByShard(keys).forEach((shard, shardKeys) -> {
+      String[] keyArray = shardKeys.toArray(new String[0]);
+      try (Jedis jedis = shard.getReadPool(readFromReplicas).getResource()) {
+        List<String> results = jedis.mget(keyArray);
+        for (int i = 0; i < keyArray.length; i++) {
+          if (results.get(i) != null) {
+            values.put(keyArray[i], results.get(i));
+          }
+        }
+      }
+    });
+    return values;
+  }
+
+  /**
+   * Sets all values with pipelined SETEX commands per shard.
+   */
+  @Override
+  public void setexAll(Map<String, String> entries, long ttlSeconds) {
+    groupByShard(entries.keySet()).forEach((shard, shardKeys) -> {
+      try (Jedis jedis = shard.getPrimary().getResource()) {
+        Pipeline pipeline = jedis.pipelined();
+        shardKeys.forEach(key -> pipeline.setex(key, ttlSeconds, entries.get(key)));
+        pipeline.sync();
+      }
+    });
+  }
+
+  /**
+   * Removes all entries with a single multi-key DEL per shard.
+   */
+  @Override
+  public void delAll(Collection<String> keys) {
+    groupByShard(keys).forEach((shard, shardKeys) -> {
+      try (Jedis jedis = shard.getPrimary().getResource()) {
+        jedis.del(shardKeys.toArray(new String[0]));
+      }
+    });
+  }
+
+  /**
+   * Refreshes all entries with pipelined EXPIRE commands per shard.
+   */
+  @Override
+  public void expireAll(Collection<String> keys, long ttlSeconds) {
+    groupByShard(keys).forEach((shard, shardKeys) -> {
+      try (Jedis jedis = shard.getPrimary().getResource()) {
+        Pipeline pipeline = jedis.pipelined();
+        shardKeys.forEach(key -> pipeline.expire(key, (int) ttlSeconds));
+        pipeline.sync();
+      }
+    });
+  }
+
+  private Map<Shard, List<String>> groupByShard(Collection<String> keys) {
+    Map<Shard, List<String>> keysByShard = new LinkedHashMap<>();
+    keys.forEach(key -> keysByShard.computeIfAbsent(shards.get(key), shard -> new ArrayList<>())
+        .add(key));
+    return keysByShard;
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+/**
+ * In-process {@link Cache} whose entries can be written to a snapshot by {@link CacheSnapshotter},
+ * so that they survive a restart of the process.
+ */
+public interface SnapshotableCache extends Cache {
+
+  /**
+   * Calls given consumer with every entry that is not expired. Entries changed while iterating may
+   * or may not be included.
+   * @param consumer
+   */
+  void forEachEntry(EntryConsumer consumer);
+
+  @FunctionalInterface
+  interface EntryConsumer {
+
+    /**
+     * @param key
+     * @param val
+     * @param expiresAtMillis - Epoch millis when the entry expires.
+     * @param slidingExpiry   - Whether expiry is extended on access, i.e. entry was set without
+     *                        ttlSeconds and expires after not being accessed for the TTL of the
+     *                        cache.
+     */
+    void accept(String key, String val, long expiresAtMillis, boolean slidingExpiry);
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind buffer of keys whose TTL should be refreshed. Keys added between flushes are
+ * refreshed with a single {@link Cache#refreshTtl(java.util.Collection)} or {@link
+ * ReactiveCache#refreshTtl(java.util.Collection)} call, and a key added many times is refreshed
+ * once.
+ * <p>
+ * Flush interval should be much shorter than the TTL of the Cache, since entries may expire while
+ * their refresh is buffered. Call {@link #close()} to flush buffered keys before the process stops.
+ */
+public class TtlRefreshBuffer implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(TtlRefreshBuffer.class);
+
+  private final Consumer<Collection<String>> refresher;
+  private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * @param cache         - Cache to refresh entries of.
+   * @param flushInterval - Time between flushes of buffered keys.
+   */
+  public TtlRefreshBuffer(Cache cache, Duration flushInterval) {
+    this(Objects.requireNonNull(cache)::refreshTtl, flushInterval);
+  }
+
+  /**
+   * @param cache         - ReactiveCache to refresh entries of. Flushes wait for its refresh.
+   * @param flushInterval - Time between flushes of buffered keys.
+   */
+  public TtlRefreshBuffer(ReactiveCache cache, Duration flushInterval) {
+    this(blockingRefresher(Objects.requireNonNull(cache)), flushInterval);
+  }
+
+  private TtlRefreshBuffer(Consumer<Collection<String>> refresher, Duration flushInterval) {
+    Objects.requireNonNull(flushInterval);
+    this.refresher = refresher;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ttl-refresh-buffer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::flushLoggingErrors, flushInterval.toMillis(),
+        flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Buffers given key to be refreshed on next flush.
+   * @param key
+   */
+  public void add(String key) {
+    pendingKeys.add(key);
+  }
+
+  /**
+   * Refreshes all buffered keys. Keys are buffered again if refresh fails.
+   */
+  public synchronized void flush() {
+    List<String> keys = new ArrayList<>();
+    for (Iterator<String> iterator = pendingKeys.iterator(); iterator.hasNext(); ) {
+      keys.add(iterator.next());
+      iterator.remove();
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+    try {
+      refresher.accept(keys);
+    } catch (RuntimeException e) {
+      pendingKeys.addAll(keys);
+      throw e;
+    }
+  }
+
+  /**
+   * Stops periodic flushes and flushes buffered keys.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdown();
+    flush();
+  }
+
+  private static Consumer<Collection<String>> blockingRefresher(ReactiveCache cache) {
+    return keys -> cache.refreshTtl(keys).block();
+  }
+
+  private void flushLoggingErrors() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      logger.warn("Failed to refresh TTL of cache entries", e);
+    }
+  }
+}
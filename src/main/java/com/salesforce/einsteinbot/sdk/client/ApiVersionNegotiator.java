@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.exception.UnsupportedSDKException;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner.StatusEnum;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ApiVersionNegotiator - Caches the API versions supported by Einstein Bots Runtime and refreshes
+ * them in the background, so checking whether the SDK's API version is supported doesn't need a
+ * network request for every new chat session.
+ * <p>
+ * The versions are fetched once when {@link #start()} is called and then every {@code cacheTtl}.
+ * If a refresh fails, the last fetched versions continue to be used. If it was not started, the
+ * background refresh starts with the first lookup of versions. {@link #stop()} stops it for good.
+ * Concurrent lookups while no versions are cached share a single fetch.
+ */
+public class ApiVersionNegotiator {
+
+  private static final Logger logger = LoggerFactory.getLogger(ApiVersionNegotiator.class);
+
+  public static final Duration DEFAULT_CACHE_TTL = Duration.ofHours(1);
+
+  /**
+   * Status of the API version used by SDK, as reported by Einstein Bots Runtime.
+   */
+  public enum ApiVersionStatus {
+    ACTIVE, DEPRECATED, UNSUPPORTED
+  }
+
+  private final Supplier<Mono<SupportedVersions>> versionsSupplier;
+  private final String currentApiVersion;
+  private final Duration cacheTtl;
+  private final ApiVersionStatusListener statusListener;
+
+  private final AtomicReference<SupportedVersions> cachedVersions = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<SupportedVersions>> pendingFetch =
+      new AtomicReference<>();
+  private final AtomicLong generation = new AtomicLong();
+  private volatile ApiVersionStatus currentApiVersionStatus = ApiVersionStatus.ACTIVE;
+  private volatile boolean scheduled;
+  private volatile boolean stopped;
+  private Disposable refreshTask;
+
+  public ApiVersionNegotiator(Supplier<Mono<SupportedVersions>> versionsSupplier,
+      String currentApiVersion, Duration cacheTtl, ApiVersionStatusListener statusListener) {
+    Objects.requireNonNull(versionsSupplier);
+    Objects.requireNonNull(currentApiVersion);
+    Objects.requireNonNull(cacheTtl);
+    Objects.requireNonNull(statusListener);
+    this.versionsSupplier = versionsSupplier;
+    this.currentApiVersion = currentApiVersion;
+    this.cacheTtl = cacheTtl;
+    this.statusListener = statusListener;
+  }
+
+  /**
+   * Fetches supported versions right away and schedules background refresh every cacheTtl.
+   */
+  public void start() {
+    schedule(Duration.ZERO);
+  }
+
+  // Lookups fetch versions themselves when none are cached, so the first refresh is after cacheTtl.
+  private void startOnFirstLookup() {
+    if (!scheduled && !stopped) {
+      schedule(cacheTtl);
+    }
+  }
+
+  private synchronized void schedule(Duration initialDelay) {
+    if (refreshTask != null || stopped) {
+      return;
+    }
+    scheduled = true;
+    refreshTask = Flux.interval(initialDelay, cacheTtl)
+        .onBackpressureDrop()
+        .concatMap(tick -> Mono.fromFuture(this::fetch)
+            .onErrorResume(e -> {
+              logger.warn("Failed to refresh supported API versions, will retry in {}", cacheTtl,
+                  e);
+              return Mono.empty();
+            }))
+        .subscribe();
+  }
+
+  /**
+   * Stops background refresh. Versions are still fetched on lookup when none are cached.
+   */
+  public synchronized void stop() {
+    stopped = true;
+    if (refreshTask != null) {
+      refreshTask.dispose();
+      refreshTask = null;
+    }
+  }
+
+  /**
+   * Discards cached versions, so next lookup fetches them again from Runtime.
+   */
+  void invalidate() {
+    generation.incrementAndGet();
+    cachedVersions.set(null);
+  }
+
+  /**
+   * @return Cached supported versions. Versions are fetched from Runtime only if they were never
+   * fetched successfully before.
+   */
+  public SupportedVersions getSupportedVersions() {
+    startOnFirstLookup();
+    SupportedVersions versions = cachedVersions.get();
+    if (versions != null) {
+      return versions;
+    }
+    try {
+      return fetch().get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException("Error in getting versions response", e);
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #getSupportedVersions()}.
+   */
+  public Mono<SupportedVersions> getSupportedVersionsAsync() {
+    return Mono.defer(() -> {
+      startOnFirstLookup();
+      SupportedVersions versions = cachedVersions.get();
+      return versions != null ? Mono.just(versions) : Mono.fromFuture(fetch());
+    });
+  }
+
+  /**
+   * @return Mono that completes empty if API version used by SDK is supported, or with {@link
+   * UnsupportedSDKException} otherwise.
+   */
+  public Mono<Void> verifyApiVersionSupported() {
+    return getSupportedVersionsAsync()
+        .flatMap(versions -> isApiVersionSupported(versions)
+            ? Mono.<Void>empty()
+            : Mono.error(
+                new UnsupportedSDKException(currentApiVersion, getLatestApiVersion(versions))));
+  }
+
+  public String getCurrentApiVersion() {
+    return currentApiVersion;
+  }
+
+  /**
+   * @return Status of the API version used by SDK as of last successful refresh.
+   */
+  public ApiVersionStatus getCurrentApiVersionStatus() {
+    return currentApiVersionStatus;
+  }
+
+  public boolean isApiVersionSupported(SupportedVersions versions) {
+    return findVersion(versions, currentApiVersion).isPresent();
+  }
+
+  public String getLatestApiVersion(SupportedVersions versions) {
+    return versions.getVersions()
+        .stream()
+        .filter(v -> Objects.equals(v.getStatus(), StatusEnum.ACTIVE))
+        .findFirst()
+        .map(SupportedVersionsVersionsInner::getVersionNumber)
+        .orElse(currentApiVersion);
+  }
+
+  /**
+   * Fetches versions, joining the fetch in flight if there is one, so that a burst of lookups on a
+   * cold start sends a single request to Runtime.
+   *
+   * @return Future of the fetch, that can be cancelled without cancelling the shared fetch.
+   */
+  private CompletableFuture<SupportedVersions> fetch() {
+    CompletableFuture<SupportedVersions> fetch = new CompletableFuture<>();
+    CompletableFuture<SupportedVersions> pending = pendingFetch.compareAndExchange(null, fetch);
+    if (pending != null) {
+      return pending.copy();
+    }
+    Mono.defer(this::refresh).toFuture().whenComplete((versions, error) -> {
+      pendingFetch.compareAndSet(fetch, null);
+      if (error != null) {
+        fetch.completeExceptionally(error);
+      } else {
+        fetch.complete(versions);
+      }
+    });
+    return fetch.copy();
+  }
+
+  private Mono<SupportedVersions> refresh() {
+    long refreshGeneration = generation.get();
+    return versionsSupplier.get()
+        .map(ApiVersionNegotiator::validate)
+        .doOnNext(versions -> {
+          // Drop results of a refresh that was started before the cache got invalidated.
+          if (generation.get() == refreshGeneration) {
+            cachedVersions.set(versions);
+            updateApiVersionStatus(versions);
+          }
+        });
+  }
+
+  /**
+   * @return Given versions, if versions response has versions.
+   * @throws RuntimeException if it has none.
+   */
+  static SupportedVersions validate(SupportedVersions versions) {
+    if (versions.getVersions() == null || versions.getVersions().isEmpty()) {
+      throw new RuntimeException("Versions response was incorrect");
+    }
+    return versions;
+  }
+
+  private synchronized void updateApiVersionStatus(SupportedVersions versions) {
+    ApiVersionStatus status = findVersion(versions, currentApiVersion)
+        .map(v -> Objects.equals(v.getStatus(), StatusEnum.DEPRECATED)
+            ? ApiVersionStatus.DEPRECATED : ApiVersionStatus.ACTIVE)
+        .orElse(ApiVersionStatus.UNSUPPORTED);
+
+    if (status != currentApiVersionStatus) {
+      currentApiVersionStatus = status;
+      logger.warn("Status of API version {} changed to {}", currentApiVersion, status);
+      try {
+        statusListener.onApiVersionStatusChange(currentApiVersion, status);
+      } catch (RuntimeException e) {
+        logger.error("ApiVersionStatusListener failed to handle status change", e);
+      }
+    }
+  }
+
+  private Optional<SupportedVersionsVersionsInner> findVersion(SupportedVersions versions,
+      String versionNumber) {
+    return versions.getVersions()
+        .stream()
+        .filter(v -> Objects.equals(v.getVersionNumber(), versionNumber))
+        .findFirst();
+  }
+}
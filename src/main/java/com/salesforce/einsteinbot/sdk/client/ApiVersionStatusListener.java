@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.client.ApiVersionNegotiator.ApiVersionStatus;
+
+/**
+ * Callback notified by {@link ApiVersionNegotiator} whenever the status of the API version used by
+ * the SDK changes. For eg. when Runtime starts reporting it as DEPRECATED or stops listing it.
+ */
+@FunctionalInterface
+public interface ApiVersionStatusListener {
+
+  /**
+   * @param apiVersion API version used by the SDK (eg. 5.3.0)
+   * @param status     New status of the API version
+   */
+  void onApiVersionStatusChange(String apiVersion, ApiVersionStatus status);
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.auth.AuthMechanism;
+import com.salesforce.einsteinbot.sdk.client.BasicChatbotClient.BasicClientFluentBuilder;
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.model.Status;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * AsyncBasicChatbotClient - Non-blocking variant of {@link BasicChatbotClient}. All methods return
+ * immediately with a CompletableFuture that is completed when the response is received from
+ * Einstein Bots Runtime, so caller threads are not blocked while requests are in flight.
+ * <p>
+ * Errors are reported by completing the future exceptionally. (eg. {@link
+ * com.salesforce.einsteinbot.sdk.exception.ChatbotResponseException} for error responses)
+ */
+public interface AsyncBasicChatbotClient extends AutoCloseable {
+
+  CompletableFuture<BotResponse> startChatSession(RequestConfig config,
+      ExternalSessionId sessionId,
+      BotSendMessageRequest requestEnvelope);
+
+  CompletableFuture<BotResponse> sendMessage(RequestConfig config,
+      RuntimeSessionId sessionId,
+      BotSendMessageRequest requestEnvelope);
+
+  CompletableFuture<BotResponse> endChatSession(RequestConfig config,
+      RuntimeSessionId sessionId,
+      BotEndSessionRequest requestEnvelope);
+
+  CompletableFuture<Status> getHealthStatus();
+
+  CompletableFuture<SupportedVersions> getSupportedVersions();
+
+  /**
+   * Stops background tasks of the client. Should be called when the client is no longer used.
+   */
+  @Override
+  default void close() {
+  }
+
+  /**
+   * AsyncBasicClientFluentBuilder provides Fluent API to create Async Basic Chatbot Client.
+   */
+  class AsyncBasicClientFluentBuilder implements AsyncBasePathBuilder, AsyncAuthMechanismBuilder,
+      AsyncBasicClientFinalBuilder {
+
+    private final BasicClientFluentBuilder basicClientBuilder = new BasicClientFluentBuilder();
+
+    AsyncBasicClientFluentBuilder() {
+    }
+
+    public AsyncBasicClientFluentBuilder basePath(String basePath) {
+      basicClientBuilder.basePath(basePath);
+      return this;
+    }
+
+    public AsyncBasicClientFluentBuilder authMechanism(AuthMechanism authMechanism) {
+      basicClientBuilder.authMechanism(authMechanism);
+      return this;
+    }
+
+    public AsyncBasicClientFluentBuilder webClientBuilder(WebClient.Builder webClientBuilder) {
+      basicClientBuilder.webClientBuilder(webClientBuilder);
+      return this;
+    }
+
+    public AsyncBasicClientFluentBuilder apiVersionCacheTtl(Duration apiVersionCacheTtl) {
+      basicClientBuilder.apiVersionCacheTtl(apiVersionCacheTtl);
+      return this;
+    }
+
+    public AsyncBasicClientFluentBuilder apiVersionStatusListener(
+        ApiVersionStatusListener apiVersionStatusListener) {
+      basicClientBuilder.apiVersionStatusListener(apiVersionStatusListener);
+      return this;
+    }
+
+    public AsyncBasicChatbotClient build() {
+      basicClientBuilder.validate();
+      return new AsyncBasicChatbotClientImpl(new BasicChatbotClientImpl(
+          basicClientBuilder.basePath,
+          basicClientBuilder.authMechanism,
+          basicClientBuilder.webClientBuilder,
+          basicClientBuilder.apiVersionCacheTtl,
+          basicClientBuilder.apiVersionStatusListener));
+    }
+  }
+
+  interface AsyncBasePathBuilder {
+
+    AsyncAuthMechanismBuilder basePath(String basePath);
+  }
+
+  interface AsyncAuthMechanismBuilder {
+
+    AsyncBasicClientFinalBuilder authMechanism(AuthMechanism authMechanism);
+  }
+
+  interface AsyncBasicClientFinalBuilder {
+
+    AsyncBasicClientFinalBuilder webClientBuilder(WebClient.Builder webClientBuilder);
+
+    AsyncBasicClientFinalBuilder apiVersionCacheTtl(Duration apiVersionCacheTtl);
+
+    AsyncBasicClientFinalBuilder apiVersionStatusListener(
+        ApiVersionStatusListener apiVersionStatusListener);
+
+    AsyncBasicChatbotClient build();
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.model.ChatMessageEnvelope;
+import com.salesforce.einsteinbot.sdk.model.EndSessionReason;
+import com.salesforce.einsteinbot.sdk.model.InitMessageEnvelope;
+import com.salesforce.einsteinbot.sdk.model.Status;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.util.concurrent.CompletableFuture;
+import reactor.core.publisher.Mono;
+
+/**
+ * This is the default implementation of {@link AsyncBasicChatbotClient}. It uses the same {@link
+ * com.salesforce.einsteinbot.sdk.handler.ApiClient} and request building logic as {@link
+ * BasicChatbotClientImpl}, but returns the response futures to the caller instead of waiting for
+ * them.
+ */
+public class AsyncBasicChatbotClientImpl implements AsyncBasicChatbotClient {
+
+  private final BasicChatbotClientImpl basicClient;
+
+  AsyncBasicChatbotClientImpl(BasicChatbotClientImpl basicClient) {
+    this.basicClient = basicClient;
+  }
+
+  @Override
+  public CompletableFuture<BotResponse> startChatSession(RequestConfig config,
+      ExternalSessionId sessionId,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    return basicClient.apiVersionNegotiator
+        .verifyApiVersionSupported()
+        .then(Mono.defer(() -> {
+          InitMessageEnvelope initMessageEnvelope = basicClient
+              .createInitMessageEnvelope(config, sessionId, botSendMessageRequest);
+
+          basicClient.notifyRequestEnvelopeInterceptor(botSendMessageRequest,
+              initMessageEnvelope);
+          return Mono.fromFuture(basicClient.invokeEstablishChatSession(config,
+              initMessageEnvelope,
+              botSendMessageRequest));
+        }))
+        .toFuture();
+  }
+
+  @Override
+  public CompletableFuture<BotResponse> sendMessage(RequestConfig config,
+      RuntimeSessionId sessionId,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    return Mono.defer(() -> {
+      ChatMessageEnvelope chatMessageEnvelope = basicClient
+          .createChatMessageEnvelope(botSendMessageRequest);
+
+      basicClient.notifyRequestEnvelopeInterceptor(botSendMessageRequest, chatMessageEnvelope);
+      return Mono.fromFuture(basicClient.invokeContinueChatSession(config.getOrgId(),
+          sessionId.getValue(),
+          chatMessageEnvelope,
+          botSendMessageRequest));
+    }).toFuture();
+  }
+
+  @Override
+  public CompletableFuture<BotResponse> endChatSession(RequestConfig config,
+      RuntimeSessionId sessionId,
+      BotEndSessionRequest botEndSessionRequest) {
+
+    return Mono.defer(() -> {
+      EndSessionReason endSessionReason = botEndSessionRequest.getEndSessionReason();
+      basicClient.notifyRequestEnvelopeInterceptor(botEndSessionRequest,
+          "EndSessionReason: " + endSessionReason);
+      return Mono.fromFuture(basicClient.invokeEndChatSession(config.getOrgId(),
+          sessionId.getValue(),
+          endSessionReason,
+          botEndSessionRequest));
+    }).toFuture();
+  }
+
+  @Override
+  public CompletableFuture<Status> getHealthStatus() {
+    return basicClient.healthApi.checkHealthStatus().toFuture();
+  }
+
+  @Override
+  public CompletableFuture<SupportedVersions> getSupportedVersions() {
+    return basicClient.getSupportedVersionsAsync().toFuture();
+  }
+
+  @Override
+  public void close() {
+    basicClient.close();
+  }
+}
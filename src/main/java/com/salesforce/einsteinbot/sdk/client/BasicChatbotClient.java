@@ -15,6 +15,7 @@ import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
 import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
 import com.salesforce.einsteinbot.sdk.model.Status;
 import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.time.Duration;
 import java.util.Objects;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -24,7 +25,7 @@ import org.springframework.web.reactive.function.client.WebClient;
  *
  * @author relango
  */
-public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
+public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId>, AutoCloseable {
 
   BotResponse startChatSession(RequestConfig config,
       ExternalSessionId sessionId,
@@ -34,6 +35,13 @@ public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
 
   SupportedVersions getSupportedVersions();
 
+  /**
+   * Stops background tasks of the client. Should be called when the client is no longer used.
+   */
+  @Override
+  default void close() {
+  }
+
   /**
    * BasicClientFluentBuilder provides Fluent API to create Basic Chatbot Client.
    */
@@ -43,6 +51,9 @@ public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
     protected String basePath;
     protected AuthMechanism authMechanism;
     protected WebClient.Builder webClientBuilder = WebClient.builder();
+    protected Duration apiVersionCacheTtl = ApiVersionNegotiator.DEFAULT_CACHE_TTL;
+    protected ApiVersionStatusListener apiVersionStatusListener =
+        (apiVersion, status) -> {/*NOOP Listener*/};
 
     protected BasicClientFluentBuilder() {
     }
@@ -62,9 +73,29 @@ public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
       return this;
     }
 
+    /**
+     * @param apiVersionCacheTtl How long supported API versions are cached before they are
+     *                           refreshed in the background. Defaults to 1 hour.
+     */
+    public BasicClientFluentBuilder apiVersionCacheTtl(Duration apiVersionCacheTtl) {
+      this.apiVersionCacheTtl = apiVersionCacheTtl;
+      return this;
+    }
+
+    /**
+     * @param apiVersionStatusListener Notified when API version used by SDK becomes DEPRECATED or
+     *                                 UNSUPPORTED in Einstein Bots Runtime.
+     */
+    public BasicClientFluentBuilder apiVersionStatusListener(
+        ApiVersionStatusListener apiVersionStatusListener) {
+      this.apiVersionStatusListener = apiVersionStatusListener;
+      return this;
+    }
+
     public BasicChatbotClient build() {
       validate();
-      return new BasicChatbotClientImpl(this.basePath, this.authMechanism, this.webClientBuilder);
+      return new BasicChatbotClientImpl(this.basePath, this.authMechanism, this.webClientBuilder,
+          this.apiVersionCacheTtl, this.apiVersionStatusListener);
     }
 
     protected void validate() {
@@ -72,6 +103,10 @@ public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
       Objects.requireNonNull(basePath, () -> String.format(errorMessageTemplate, "basePath"));
       Objects.requireNonNull(authMechanism,
           () -> String.format(errorMessageTemplate, "authMechanism"));
+      Objects.requireNonNull(apiVersionCacheTtl,
+          () -> String.format(errorMessageTemplate, "apiVersionCacheTtl"));
+      Objects.requireNonNull(apiVersionStatusListener,
+          () -> String.format(errorMessageTemplate, "apiVersionStatusListener"));
     }
   }
 
@@ -89,6 +124,11 @@ public interface BasicChatbotClient extends ChatbotClient<RuntimeSessionId> {
 
     BasicClientFinalBuilder webClientBuilder(WebClient.Builder webClientBuilder);
 
+    BasicClientFinalBuilder apiVersionCacheTtl(Duration apiVersionCacheTtl);
+
+    BasicClientFinalBuilder apiVersionStatusListener(
+        ApiVersionStatusListener apiVersionStatusListener);
+
     BasicChatbotClient build();
   }
 }
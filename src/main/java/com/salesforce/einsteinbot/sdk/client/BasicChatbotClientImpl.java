@@ -10,6 +10,7 @@ package com.salesforce.einsteinbot.sdk.client;
 import static com.salesforce.einsteinbot.sdk.client.model.BotResponseBuilder.fromChatMessageResponseEnvelopeResponseEntity;
 import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildChatMessageEnvelope;
 import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildInitMessageEnvelope;
+import static com.salesforce.einsteinbot.sdk.util.WebClientUtil.createBearerTokenFilter;
 import static com.salesforce.einsteinbot.sdk.util.WebClientUtil.createErrorResponseProcessor;
 import static com.salesforce.einsteinbot.sdk.util.WebClientUtil.createFilter;
 
@@ -35,16 +36,14 @@ import com.salesforce.einsteinbot.sdk.model.EndSessionReason;
 import com.salesforce.einsteinbot.sdk.model.InitMessageEnvelope;
 import com.salesforce.einsteinbot.sdk.model.Status;
 import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
-import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner;
-import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner.StatusEnum;
 import com.salesforce.einsteinbot.sdk.util.LoggingJsonEncoder;
 import com.salesforce.einsteinbot.sdk.util.ReleaseInfo;
 import com.salesforce.einsteinbot.sdk.util.UtilFunctions;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.Duration;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
@@ -54,9 +53,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ClientCodecConfigurer;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * This is a basic implementation of {@link BasicChatbotClient}. It does not perform session
@@ -67,16 +68,31 @@ import reactor.core.publisher.Mono;
  */
 public class BasicChatbotClientImpl implements BasicChatbotClient {
 
+  // Health and versions endpoints do not require authentication.
+  private static final Set<String> UNAUTHENTICATED_PATHS = Set.of("/status", "/versions");
+
   protected BotApi botApi;
   protected HealthApi healthApi;
   protected VersionsApi versionsApi;
   protected ApiClient apiClient;
   protected AuthMechanism authMechanism;
   protected ReleaseInfo releaseInfo = ReleaseInfo.getInstance();
+  protected ApiVersionNegotiator apiVersionNegotiator;
+  private Duration apiVersionCacheTtl;
+  private ApiVersionStatusListener apiVersionStatusListener;
 
   protected BasicChatbotClientImpl(String basePath,
       AuthMechanism authMechanism,
       WebClient.Builder webClientBuilder) {
+    this(basePath, authMechanism, webClientBuilder, ApiVersionNegotiator.DEFAULT_CACHE_TTL,
+        (apiVersion, status) -> {/*NOOP Listener*/});
+  }
+
+  protected BasicChatbotClientImpl(String basePath,
+      AuthMechanism authMechanism,
+      WebClient.Builder webClientBuilder,
+      Duration apiVersionCacheTtl,
+      ApiVersionStatusListener apiVersionStatusListener) {
 
     this.authMechanism = authMechanism;
     this.apiClient = new ApiClient(createWebClient(webClientBuilder), UtilFunctions.getMapper(),
@@ -87,6 +103,11 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
     botApi = new BotApi(apiClient);
     healthApi = new HealthApi(apiClient);
     versionsApi = new VersionsApi(apiClient);
+    this.apiVersionCacheTtl = apiVersionCacheTtl;
+    this.apiVersionStatusListener = apiVersionStatusListener;
+    // starts background refresh on first version check, so unused clients do not schedule it.
+    apiVersionNegotiator = new ApiVersionNegotiator(versionsApi::getAPIVersions,
+        getCurrentApiVersion(), apiVersionCacheTtl, apiVersionStatusListener);
   }
 
   @VisibleForTesting
@@ -102,6 +123,17 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
   @VisibleForTesting
   void setVersionsApi(VersionsApi versionsApi) {
     this.versionsApi = versionsApi;
+    apiVersionNegotiator.stop();
+    apiVersionNegotiator = new ApiVersionNegotiator(versionsApi::getAPIVersions,
+        apiVersionNegotiator.getCurrentApiVersion(), apiVersionCacheTtl, apiVersionStatusListener);
+  }
+
+  /**
+   * Stops background refresh of supported API versions.
+   */
+  @Override
+  public void close() {
+    apiVersionNegotiator.stop();
   }
 
   @Override
@@ -109,9 +141,7 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
       ExternalSessionId sessionId,
       BotSendMessageRequest botSendMessageRequest) {
 
-    if (!isApiVersionSupported()) {
-      throw new UnsupportedSDKException(getCurrentApiVersion(), getLatestApiVersion());
-    }
+    verifyApiVersionSupported();
     InitMessageEnvelope initMessageEnvelope = createInitMessageEnvelope(config, sessionId,
         botSendMessageRequest);
 
@@ -186,9 +216,7 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
   protected CompletableFuture<BotResponse> invokeEndChatSession(String orgId, String sessionId,
       EndSessionReason endSessionReason, BotEndSessionRequest botRequest) {
 
-    apiClient.setBearerToken(authMechanism.getToken());
-
-      return botApi
+    return botApi
         .endSessionWithHttpInfo(sessionId,
             orgId,
             endSessionReason,
@@ -203,9 +231,7 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
       InitMessageEnvelope initMessageEnvelope,
       BotSendMessageRequest botRequest) {
 
-    apiClient.setBearerToken(authMechanism.getToken());
-
-      return botApi
+    return botApi
         .startSessionWithHttpInfo(config.getBotId(), config.getOrgId(),
             initMessageEnvelope, botRequest.getRequestId().orElse(null))
         .toFuture()
@@ -216,9 +242,7 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
       ChatMessageEnvelope messageEnvelope,
       BotSendMessageRequest botRequest) {
 
-    apiClient.setBearerToken(authMechanism.getToken());
-
-      return botApi
+    return botApi
         .continueSessionWithHttpInfo(sessionId,
             orgId,
             messageEnvelope,
@@ -243,25 +267,43 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
     CompletableFuture<SupportedVersions> versionsFuture = versionsApi.getAPIVersions().toFuture();
 
     try {
-      SupportedVersions versions = versionsFuture.get();
-      if (versions.getVersions().isEmpty()) {
-        throw new RuntimeException("Versions response was incorrect");
-      }
-      return versions;
+      return ApiVersionNegotiator.validate(versionsFuture.get());
     } catch (InterruptedException | ExecutionException e) {
       throw new RuntimeException("Error in getting versions response", e);
     }
   }
 
+  Mono<SupportedVersions> getSupportedVersionsAsync() {
+    return versionsApi.getAPIVersions().map(ApiVersionNegotiator::validate);
+  }
+
   private WebClient createWebClient(WebClient.Builder webClientBuilder) {
 
     return webClientBuilder
         .codecs(createCodecsConfiguration(UtilFunctions.getMapper()))
+        .filter(createBearerTokenFilter(this::requiresToken, authMechanism::getTokenAsync,
+            this::isUnauthorized, this::invalidateToken))
         .filter(createFilter(WebClientUtil::createLoggingRequestProcessor,
             clientResponse -> createErrorResponseProcessor(clientResponse, this::mapErrorResponse)))
         .build();
   }
 
+  private boolean requiresToken(ClientRequest clientRequest) {
+    String path = clientRequest.url().getPath();
+    return UNAUTHENTICATED_PATHS.stream().noneMatch(path::endsWith);
+  }
+
+  private boolean isUnauthorized(Throwable error) {
+    return error instanceof ChatbotResponseException
+        && ((ChatbotResponseException) error).getStatus() == HttpStatus.UNAUTHORIZED.value();
+  }
+
+  private Mono<Void> invalidateToken(String token) {
+    // invalidation may remove token from a blocking cache.
+    return Mono.<Void>fromRunnable(() -> authMechanism.invalidateToken(token))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
   private Consumer<ClientCodecConfigurer> createCodecsConfiguration(ObjectMapper mapper) {
     return clientDefaultCodecsConfigurer -> {
       clientDefaultCodecsConfigurer.defaultCodecs()
@@ -295,22 +337,11 @@ public class BasicChatbotClientImpl implements BasicChatbotClient {
     return properties.getProperty("api-spec-version").replace("_", ".");
   }
 
-  private String getLatestApiVersion() {
-    SupportedVersions versions = getSupportedVersions();
-    Optional<SupportedVersionsVersionsInner> supportedVersions = versions.getVersions()
-        .stream()
-        .filter(v -> Objects.equals(v.getStatus(), StatusEnum.ACTIVE))
-        .findFirst();
-    return supportedVersions.isPresent() ? supportedVersions.get().getVersionNumber() : getCurrentApiVersion();
-  }
-
-  private boolean isApiVersionSupported() {
-    String currentApiVersion = getCurrentApiVersion();
-    SupportedVersions versions = getSupportedVersions();
-    Optional<SupportedVersionsVersionsInner> supportedVersions = versions.getVersions()
-        .stream()
-        .filter(v -> Objects.equals(v.getVersionNumber(), currentApiVersion))
-        .findFirst();
-    return supportedVersions.isPresent();
+  private void verifyApiVersionSupported() {
+    SupportedVersions versions = apiVersionNegotiator.getSupportedVersions();
+    if (!apiVersionNegotiator.isApiVersionSupported(versions)) {
+      throw new UnsupportedSDKException(apiVersionNegotiator.getCurrentApiVersion(),
+          apiVersionNegotiator.getLatestApiVersion(versions));
+    }
   }
 }
@@ -8,8 +8,12 @@
 package com.salesforce.einsteinbot.sdk.client;
 
 
+import com.salesforce.einsteinbot.sdk.client.AsyncBasicChatbotClient.AsyncBasePathBuilder;
+import com.salesforce.einsteinbot.sdk.client.AsyncBasicChatbotClient.AsyncBasicClientFluentBuilder;
 import com.salesforce.einsteinbot.sdk.client.BasicChatbotClient.BasePathBuilder;
 import com.salesforce.einsteinbot.sdk.client.BasicChatbotClient.BasicClientFluentBuilder;
+import com.salesforce.einsteinbot.sdk.client.ReactiveSessionManagedChatbotClient.AsyncBasicClientBuilder;
+import com.salesforce.einsteinbot.sdk.client.ReactiveSessionManagedChatbotClient.ReactiveSessionManagedClientFluentBuilder;
 import com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClient.BasicClientBuilder;
 import com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClient.SessionManagedClientFluentBuilder;
 
@@ -38,4 +42,22 @@ public class ChatbotClients {
   public static BasePathBuilder basic() {
     return new BasicClientFluentBuilder();
   }
+
+  /**
+   * Return's builder to build {@link AsyncBasicChatbotClient} implementation.
+   *
+   * @return AsyncBasicClient FluentBuilder
+   */
+  public static AsyncBasePathBuilder asyncBasic() {
+    return new AsyncBasicClientFluentBuilder();
+  }
+
+  /**
+   * Return's builder to build {@link ReactiveSessionManagedChatbotClient} implementation.
+   *
+   * @return ReactiveSessionManagedClient FluentBuilder
+   */
+  public static AsyncBasicClientBuilder reactiveSessionManaged() {
+    return new ReactiveSessionManagedClientFluentBuilder();
+  }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.cache.ReactiveCache;
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.client.util.IntegrationNameValidator;
+import com.salesforce.einsteinbot.sdk.model.Status;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveSessionManagedChatbotClient - Non-blocking variant of {@link
+ * SessionManagedChatbotClient}. Session lookup, the bot request and session update are composed in
+ * a single Mono, so a conversation turn never blocks a thread when used with a non-blocking {@link
+ * ReactiveCache}.
+ */
+public interface ReactiveSessionManagedChatbotClient extends AutoCloseable {
+
+  Mono<BotResponse> sendMessage(RequestConfig config,
+      ExternalSessionId sessionId,
+      BotSendMessageRequest requestEnvelope);
+
+  Mono<BotResponse> endChatSession(RequestConfig config,
+      ExternalSessionId sessionId,
+      BotEndSessionRequest requestEnvelope);
+
+  /**
+   * Looks up Runtime session ids of many external session ids in one cache round trip.
+   *
+   * @return Mono emitting Runtime session ids of given external session ids that have a session.
+   * External session ids without a session are absent from emitted Map.
+   */
+  Mono<Map<ExternalSessionId, RuntimeSessionId>> getRuntimeSessionIds(RequestConfig config,
+      Collection<ExternalSessionId> externalSessionIds);
+
+  Mono<Status> getHealthStatus();
+
+  Mono<SupportedVersions> getSupportedVersions();
+
+  /**
+   * Writes pending cache updates. Should be called before the process stops.
+   */
+  @Override
+  default void close() {
+  }
+
+  /**
+   * ReactiveSessionManagedClientFluentBuilder provides Fluent API to create Reactive Session
+   * Managed Chatbot Client.
+   */
+  class ReactiveSessionManagedClientFluentBuilder implements AsyncBasicClientBuilder,
+      ReactiveCacheBuilder, ReactiveSessionManagedClientFinalBuilder {
+
+    private AsyncBasicChatbotClient basicClient;
+    private Optional<String> integrationName = Optional.empty();
+    private ReactiveCache cache;
+    private Duration ttlRefreshInterval = SessionManagedChatbotClientImpl
+        .DEFAULT_TTL_REFRESH_INTERVAL;
+    private boolean compactSessionRecords;
+
+    ReactiveSessionManagedClientFluentBuilder() {
+    }
+
+    public ReactiveSessionManagedClientFluentBuilder basicClient(
+        AsyncBasicChatbotClient basicClient) {
+      this.basicClient = basicClient;
+      return this;
+    }
+
+    public ReactiveSessionManagedClientFluentBuilder integrationName(String integrationName) {
+      IntegrationNameValidator.validateIntegrationName(integrationName);
+      this.integrationName = Optional.ofNullable(integrationName);
+      return this;
+    }
+
+    public ReactiveSessionManagedClientFluentBuilder cache(ReactiveCache cache) {
+      this.cache = cache;
+      return this;
+    }
+
+    /**
+     * Interval at which buffered TTL refreshes of cached session ids are written in batches, 30
+     * seconds by default. Should be much shorter than the TTL of the Cache. With zero, every
+     * message of a session refreshes its TTL with a separate Cache call.
+     */
+    public ReactiveSessionManagedClientFluentBuilder ttlRefreshInterval(
+        Duration ttlRefreshInterval) {
+      Objects.requireNonNull(ttlRefreshInterval);
+      if (ttlRefreshInterval.isNegative()) {
+        throw new IllegalArgumentException("ttlRefreshInterval should not be negative");
+      }
+      this.ttlRefreshInterval = ttlRefreshInterval;
+      return this;
+    }
+
+    /**
+     * Caches runtime CRC and sequence id of the last message with the session id, so that runtime
+     * CRC is sent on following messages and sequence ids keep increasing. Disabled by default,
+     * since instances running earlier versions of this SDK read cached value as a plain session id.
+     * Enable it once all instances sharing the Cache are upgraded.
+     */
+    public ReactiveSessionManagedClientFluentBuilder compactSessionRecords(
+        boolean compactSessionRecords) {
+      this.compactSessionRecords = compactSessionRecords;
+      return this;
+    }
+
+    public ReactiveSessionManagedChatbotClient build() {
+      String errorMessageTemplate = "Please provide non-null value for %s ";
+      Objects.requireNonNull(basicClient, () -> String.format(errorMessageTemplate, "basicClient"));
+      Objects.requireNonNull(cache, () -> String.format(errorMessageTemplate, "cache"));
+      return new ReactiveSessionManagedChatbotClientImpl(this.basicClient, this.integrationName,
+          this.cache, this.ttlRefreshInterval, this.compactSessionRecords);
+    }
+  }
+
+  interface AsyncBasicClientBuilder {
+
+    ReactiveCacheBuilder basicClient(AsyncBasicChatbotClient basicClient);
+  }
+
+  interface ReactiveCacheBuilder {
+
+    ReactiveSessionManagedClientFinalBuilder cache(ReactiveCache cache);
+  }
+
+  interface ReactiveSessionManagedClientFinalBuilder {
+
+    ReactiveSessionManagedClientFinalBuilder integrationName(String integrationName);
+
+    ReactiveSessionManagedClientFinalBuilder ttlRefreshInterval(Duration ttlRefreshInterval);
+
+    ReactiveSessionManagedClientFinalBuilder compactSessionRecords(boolean compactSessionRecords);
+
+    ReactiveSessionManagedChatbotClient build();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.addSequenceIds;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.getCacheKey;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.getCacheKeys;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.getSequenceIdRewriteIntervalMillis;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.isUpToDate;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.toRuntimeSessionIds;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.updateContextVariables;
+import static com.salesforce.einsteinbot.sdk.client.SessionManagedChatbotClientImpl.withRuntimeCRC;
+
+import com.salesforce.einsteinbot.sdk.cache.ReactiveCache;
+import com.salesforce.einsteinbot.sdk.cache.TtlRefreshBuffer;
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.model.Status;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import reactor.core.publisher.Mono;
+
+/**
+ * This implementation of {@link ReactiveSessionManagedChatbotClient} provides the same session
+ * management as {@link SessionManagedChatbotClientImpl} on top of {@link AsyncBasicChatbotClient}
+ * and {@link ReactiveCache}.
+ * <p>
+ * Like there, cached session is written only when session id or runtime CRC change, or when the
+ * cached sequence id is a TTL refresh interval behind. For other messages, TTL of the cached
+ * session is refreshed in batches through a {@link TtlRefreshBuffer}, or right away if the TTL
+ * refresh interval is zero.
+ */
+public class ReactiveSessionManagedChatbotClientImpl implements
+    ReactiveSessionManagedChatbotClient {
+
+  private AsyncBasicChatbotClient basicClient;
+  private ReactiveCache cache;
+  private Optional<String> integrationName;
+  private Optional<TtlRefreshBuffer> ttlRefreshBuffer;
+  private boolean compactSessionRecords;
+  private long sequenceIdRewriteIntervalMillis;
+
+  ReactiveSessionManagedChatbotClientImpl(AsyncBasicChatbotClient basicChatbotClient,
+      Optional<String> integrationName,
+      ReactiveCache cache,
+      Duration ttlRefreshInterval,
+      boolean compactSessionRecords) {
+
+    basicClient = basicChatbotClient;
+    this.cache = cache;
+    this.integrationName = integrationName;
+    this.ttlRefreshBuffer = ttlRefreshInterval.isZero()
+        ? Optional.empty() : Optional.of(new TtlRefreshBuffer(cache, ttlRefreshInterval));
+    this.compactSessionRecords = compactSessionRecords;
+    this.sequenceIdRewriteIntervalMillis = getSequenceIdRewriteIntervalMillis(ttlRefreshInterval);
+  }
+
+  @Override
+  public Mono<BotResponse> sendMessage(RequestConfig config, ExternalSessionId externalSessionId,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    String cacheKey = getCacheKey(config, externalSessionId.getValue());
+
+    return cache.get(cacheKey)
+        .map(SessionRecord::decode)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(sessionRecordOptional -> sessionRecordOptional
+            .map(sessionRecord -> continueExistingSession(config, cacheKey,
+                botSendMessageRequest, sessionRecord))
+            .orElseGet(() -> startNewChatSession(config, externalSessionId, cacheKey,
+                botSendMessageRequest)));
+  }
+
+  private Mono<BotResponse> continueExistingSession(RequestConfig config, String cacheKey,
+      BotSendMessageRequest botSendMessageRequest, SessionRecord sessionRecord) {
+
+    BotSendMessageRequest requestEnvelope = withRuntimeCRC(botSendMessageRequest, sessionRecord);
+    long sequenceId = addSequenceIds(requestEnvelope, sessionRecord.getLastSequenceId());
+    return Mono.fromFuture(() -> basicClient.sendMessage(config,
+            new RuntimeSessionId(sessionRecord.getSessionId()), requestEnvelope))
+        .flatMap(botResponse -> cacheSession(cacheKey, Optional.of(sessionRecord), botResponse,
+            sequenceId));
+  }
+
+  private Mono<BotResponse> startNewChatSession(RequestConfig config,
+      ExternalSessionId externalSessionId, String cacheKey,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    BotSendMessageRequest requestEnvelope = updateContextVariables(botSendMessageRequest,
+        integrationName);
+    long sequenceId = addSequenceIds(requestEnvelope, 0);
+    return Mono.fromFuture(() -> basicClient
+            .startChatSession(config, externalSessionId, requestEnvelope))
+        .flatMap(botResponse -> cacheSession(cacheKey, Optional.empty(), botResponse,
+            sequenceId));
+  }
+
+  private Mono<BotResponse> cacheSession(String cacheKey, Optional<SessionRecord> cachedSession,
+      BotResponse botResponse, long sequenceId) {
+    SessionRecord sessionRecord = SessionRecord.fromResponse(botResponse, sequenceId);
+    if (!cachedSession.filter(cached -> isUpToDate(cached, sessionRecord, compactSessionRecords,
+        sequenceIdRewriteIntervalMillis)).isPresent()) {
+      return cache
+          .set(cacheKey,
+              compactSessionRecords ? sessionRecord.encode() : sessionRecord.encodeLegacy())
+          .thenReturn(botResponse);
+    }
+    if (ttlRefreshBuffer.isPresent()) {
+      ttlRefreshBuffer.get().add(cacheKey);
+      return Mono.just(botResponse);
+    }
+    return cache.refreshTtl(List.of(cacheKey)).thenReturn(botResponse);
+  }
+
+  @Override
+  public Mono<BotResponse> endChatSession(RequestConfig config,
+      ExternalSessionId externalSessionId, BotEndSessionRequest botEndSessionRequest) {
+
+    String cacheKey = getCacheKey(config, externalSessionId.getValue());
+
+    return cache.get(cacheKey)
+        .switchIfEmpty(Mono.error(() ->
+            new IllegalStateException("No session found for given cacheKey : " + cacheKey)))
+        .map(SessionRecord::decode)
+        .flatMap(sessionRecord -> Mono.fromFuture(() -> basicClient
+            .endChatSession(config, new RuntimeSessionId(sessionRecord.getSessionId()),
+                withRuntimeCRC(botEndSessionRequest, sessionRecord))))
+        .flatMap(botResponse -> cache.remove(cacheKey).thenReturn(botResponse));
+  }
+
+  @Override
+  public Mono<Map<ExternalSessionId, RuntimeSessionId>> getRuntimeSessionIds(
+      RequestConfig config, Collection<ExternalSessionId> externalSessionIds) {
+
+    return Mono.defer(() -> {
+      Map<String, ExternalSessionId> cacheKeys = getCacheKeys(config, externalSessionIds);
+      return cache.getAll(cacheKeys.keySet())
+          .map(cachedSessionIds -> toRuntimeSessionIds(cacheKeys, cachedSessionIds));
+    });
+  }
+
+  /**
+   * Flushes buffered TTL refreshes.
+   */
+  @Override
+  public void close() {
+    ttlRefreshBuffer.ifPresent(TtlRefreshBuffer::close);
+  }
+
+  @Override
+  public Mono<Status> getHealthStatus() {
+    return Mono.fromFuture(basicClient::getHealthStatus);
+  }
+
+  @Override
+  public Mono<SupportedVersions> getSupportedVersions() {
+    return Mono.fromFuture(basicClient::getSupportedVersions);
+  }
+}
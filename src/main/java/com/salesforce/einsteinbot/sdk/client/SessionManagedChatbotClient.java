@@ -9,7 +9,12 @@ package com.salesforce.einsteinbot.sdk.client;
 
 import com.salesforce.einsteinbot.sdk.cache.Cache;
 import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
 import com.salesforce.einsteinbot.sdk.client.util.IntegrationNameValidator;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -21,7 +26,29 @@ import java.util.Optional;
  *
  * @author relango
  */
-public interface SessionManagedChatbotClient extends ChatbotClient<ExternalSessionId> {
+public interface SessionManagedChatbotClient extends ChatbotClient<ExternalSessionId>,
+    AutoCloseable {
+
+  /**
+   * Looks up Runtime session ids of many external session ids in one cache round trip. Default
+   * implementation is not supported, so that implementations written before this method was added
+   * still compile.
+   *
+   * @return Runtime session ids of given external session ids that have a session. External
+   * session ids without a session are absent from returned Map.
+   */
+  default Map<ExternalSessionId, RuntimeSessionId> getRuntimeSessionIds(RequestConfig config,
+      Collection<ExternalSessionId> externalSessionIds) {
+    throw new UnsupportedOperationException(
+        "getRuntimeSessionIds is not supported by " + getClass().getName());
+  }
+
+  /**
+   * Writes pending cache updates. Should be called before the process stops.
+   */
+  @Override
+  default void close() {
+  }
 
   /**
    * SessionManagedClientFluentBuilder provides Fluent API to create Session Managed Chatbot
@@ -33,6 +60,10 @@ public interface SessionManagedChatbotClient extends ChatbotClient<ExternalSessi
     private BasicChatbotClient basicClient;
     private Optional<String> integrationName = Optional.empty();
     private Cache cache;
+    private Duration ttlRefreshInterval = SessionManagedChatbotClientImpl
+        .DEFAULT_TTL_REFRESH_INTERVAL;
+    private Optional<Duration> sessionStartLease = Optional.empty();
+    private boolean compactSessionRecords;
 
     SessionManagedClientFluentBuilder() {
     }
@@ -53,12 +84,54 @@ public interface SessionManagedChatbotClient extends ChatbotClient<ExternalSessi
       return this;
     }
 
+    /**
+     * Interval at which buffered TTL refreshes of cached session ids are written in batches, 30
+     * seconds by default. Should be much shorter than the TTL of the Cache. With zero, every
+     * message of a session refreshes its TTL with a separate Cache call.
+     */
+    public SessionManagedClientFluentBuilder ttlRefreshInterval(Duration ttlRefreshInterval) {
+      Objects.requireNonNull(ttlRefreshInterval);
+      if (ttlRefreshInterval.isNegative()) {
+        throw new IllegalArgumentException("ttlRefreshInterval should not be negative");
+      }
+      this.ttlRefreshInterval = ttlRefreshInterval;
+      return this;
+    }
+
+    /**
+     * Uses a lease in the Cache, so that only one of the instances sharing it starts a session for
+     * an external session id at a time. Requires a cache with atomic {@link Cache#setIfAbsent},
+     * such as {@link com.salesforce.einsteinbot.sdk.cache.RedisCache}.
+     *
+     * @param leaseDuration How long an instance holds lease while starting session. Others wait
+     *                      for the session at most this long before starting one themselves.
+     */
+    public SessionManagedClientFluentBuilder sessionStartLease(Duration leaseDuration) {
+      Objects.requireNonNull(leaseDuration);
+      if (leaseDuration.getSeconds() < 1) {
+        throw new IllegalArgumentException("leaseDuration should be at least one second");
+      }
+      this.sessionStartLease = Optional.of(leaseDuration);
+      return this;
+    }
+
+    /**
+     * Caches runtime CRC and sequence id of the last message with the session id, so that runtime
+     * CRC is sent on following messages and sequence ids keep increasing. Disabled by default,
+     * since instances running earlier versions of this SDK read cached value as a plain session id.
+     * Enable it once all instances sharing the Cache are upgraded.
+     */
+    public SessionManagedClientFluentBuilder compactSessionRecords(boolean compactSessionRecords) {
+      this.compactSessionRecords = compactSessionRecords;
+      return this;
+    }
+
     public SessionManagedChatbotClient build() {
       String errorMessageTemplate = "Please provide non-null value for %s ";
       Objects.requireNonNull(basicClient, () -> String.format(errorMessageTemplate, "basicClient"));
       Objects.requireNonNull(cache, () -> String.format(errorMessageTemplate, "cache"));
       return new SessionManagedChatbotClientImpl(this.basicClient, this.integrationName,
-          this.cache);
+          this.cache, this.ttlRefreshInterval, this.sessionStartLease, this.compactSessionRecords);
     }
 
   }
@@ -77,6 +150,12 @@ public interface SessionManagedChatbotClient extends ChatbotClient<ExternalSessi
 
     SessionManagedClientFinalBuilder integrationName(String integrationName);
 
+    SessionManagedClientFinalBuilder ttlRefreshInterval(Duration ttlRefreshInterval);
+
+    SessionManagedClientFinalBuilder sessionStartLease(Duration leaseDuration);
+
+    SessionManagedClientFinalBuilder compactSessionRecords(boolean compactSessionRecords);
+
     SessionManagedChatbotClient build();
   }
 }
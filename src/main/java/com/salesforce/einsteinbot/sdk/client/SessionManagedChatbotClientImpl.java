@@ -9,7 +9,10 @@ package com.salesforce.einsteinbot.sdk.client;
 
 import static com.salesforce.einsteinbot.sdk.util.UtilFunctions.addIntegrationTypeAndNameToContextVariables;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.salesforce.einsteinbot.sdk.cache.Cache;
+import com.salesforce.einsteinbot.sdk.cache.TtlRefreshBuffer;
 import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
 import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
 import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
@@ -17,11 +20,22 @@ import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
 import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
 import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
 import com.salesforce.einsteinbot.sdk.model.AnyVariable;
-import com.salesforce.einsteinbot.sdk.model.ResponseEnvelope;
 import com.salesforce.einsteinbot.sdk.model.Status;
 import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This implementation of {@link SessionManagedChatbotClient} includes Session Management.
@@ -29,94 +43,288 @@ import java.util.Optional;
  * It provides session management capabilities, caching Runtime's session ID based on an external
  * session ID. {@link com.salesforce.einsteinbot.sdk.cache.RedisCache} is supported out of the box.
  * There is an {@link com.salesforce.einsteinbot.sdk.cache.InMemoryCache} included that is meant for
- * testing purposes only. Additional caching methods can be used by implementing the {@link Cache}
- * interface.
+ * single instance deployments. Additional caching methods can be used by implementing the {@link
+ * Cache} interface.
  * <p>
  * SequenceId will also get set automatically.
+ * <p>
+ * Session id is cached with runtime CRC of the last response and sequence id of the last message.
+ * It is written to Cache only when session id or runtime CRC change, or when the cached sequence
+ * id is a TTL refresh interval (30 seconds by default) behind. For other messages, TTL of the
+ * cached session is refreshed in batches through a {@link TtlRefreshBuffer}, or right away if the
+ * TTL refresh interval is zero.
+ * Unless compact session records are enabled, only session id is cached, so that instances running
+ * earlier versions can read it.
+ * <p>
+ * Concurrent messages for an external session id without a session start only one session. Other
+ * callers wait for it and continue on it. With a session start lease, the same applies across
+ * instances sharing the Cache.
  */
 public class SessionManagedChatbotClientImpl implements SessionManagedChatbotClient {
 
+  private static final Logger logger = LoggerFactory
+      .getLogger(SessionManagedChatbotClientImpl.class);
+  private static final Duration SESSION_START_POLL_INTERVAL = Duration.ofMillis(100);
+  static final Duration DEFAULT_TTL_REFRESH_INTERVAL = Duration.ofSeconds(30);
+  // Cache key prefixes by config. Weak keys compare configs by identity.
+  private static final LoadingCache<RequestConfig, String> cacheKeyPrefixes = Caffeine.newBuilder()
+      .weakKeys()
+      .maximumSize(10_000)
+      .build(config -> getCacheKeyPrefix(config.getOrgId(), config.getBotId()));
+
   private BasicChatbotClient basicClient;
   private Cache cache;
   private Optional<String> integrationName;
+  private Optional<TtlRefreshBuffer> ttlRefreshBuffer;
+  private Optional<Duration> sessionStartLease;
+  private boolean compactSessionRecords;
+  private long sequenceIdRewriteIntervalMillis;
+  // session starts in flight on this instance, by cache key.
+  private final Map<String, CompletableFuture<SessionRecord>> sessionStarts = new ConcurrentHashMap<>();
+  private final String leaseOwner = UUID.randomUUID().toString();
 
   SessionManagedChatbotClientImpl(BasicChatbotClient basicChatbotClient,
       Optional<String> integrationName,
-      Cache cache) {
+      Cache cache,
+      Duration ttlRefreshInterval,
+      Optional<Duration> sessionStartLease,
+      boolean compactSessionRecords) {
 
     basicClient = basicChatbotClient;
     this.cache = cache;
     this.integrationName = integrationName;
+    this.ttlRefreshBuffer = ttlRefreshInterval.isZero()
+        ? Optional.empty() : Optional.of(new TtlRefreshBuffer(cache, ttlRefreshInterval));
+    this.sessionStartLease = sessionStartLease;
+    this.compactSessionRecords = compactSessionRecords;
+    this.sequenceIdRewriteIntervalMillis = getSequenceIdRewriteIntervalMillis(ttlRefreshInterval);
   }
 
   @Override
   public BotResponse sendMessage(RequestConfig config, ExternalSessionId externalSessionId,
       BotSendMessageRequest botSendMessageRequest) {
 
-    String externalSessionIdValue = externalSessionId.getValue();
-    String botId = config.getBotId();
-    String orgId = config.getOrgId();
+    String cacheKey = getCacheKey(config, externalSessionId.getValue());
 
-    Optional<String> runtimeSessionIdOptional = cache
-        .get(getCacheKey(orgId, botId, externalSessionIdValue));
+    Optional<SessionRecord> sessionRecordOptional = cache.get(cacheKey)
+        .map(SessionRecord::decode);
 
-    BotResponse botResponse;
-    if (!runtimeSessionIdOptional.isPresent()) {
-      botResponse = startNewChatSession(config, externalSessionId, botSendMessageRequest);
-    } else {
-      botResponse = continueExistingSession(config, botSendMessageRequest,
-          runtimeSessionIdOptional);
+    if (!sessionRecordOptional.isPresent()) {
+      return startOrJoinChatSession(config, externalSessionId, cacheKey, botSendMessageRequest);
+    }
+    return continueExistingSession(config, cacheKey, botSendMessageRequest,
+        sessionRecordOptional.get()).botResponse;
+  }
+
+  /**
+   * Starts new session unless another caller on this instance is starting one for the same
+   * cacheKey. In that case, waits for it and continues on its session, or tries again if it failed.
+   */
+  private BotResponse startOrJoinChatSession(RequestConfig config,
+      ExternalSessionId externalSessionId, String cacheKey,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    CompletableFuture<SessionRecord> sessionStart = new CompletableFuture<>();
+    CompletableFuture<SessionRecord> pendingSessionStart = sessionStarts
+        .putIfAbsent(cacheKey, sessionStart);
+    if (pendingSessionStart != null) {
+      return awaitSessionStart(pendingSessionStart)
+          .map(sessionRecord -> continueExistingSession(config, cacheKey,
+              botSendMessageRequest, sessionRecord).botResponse)
+          .orElseGet(() -> sendMessage(config, externalSessionId, botSendMessageRequest));
     }
 
-    //TODO: Also cache runtimeCRC and send it in subsequent request for both v5 and v4.
-    cacheSessionId(botId, externalSessionIdValue, botResponse.getResponseEnvelope(), orgId);
-    return botResponse;
+    try {
+      SessionResponse sessionResponse = startChatSessionOnce(config, externalSessionId, cacheKey,
+          botSendMessageRequest);
+      // callers waiting for it continue after the sequence id of this message.
+      sessionStart.complete(sessionResponse.sessionRecord);
+      return sessionResponse.botResponse;
+    } catch (RuntimeException e) {
+      sessionStart.completeExceptionally(e);
+      throw e;
+    } finally {
+      sessionStarts.remove(cacheKey, sessionStart);
+    }
   }
 
-  private BotResponse continueExistingSession(RequestConfig config,
-      BotSendMessageRequest botSendMessageRequest,
-      Optional<String> runtimeSessionIdOptional) {
+  private SessionResponse startChatSessionOnce(RequestConfig config,
+      ExternalSessionId externalSessionId, String cacheKey,
+      BotSendMessageRequest botSendMessageRequest) {
+
+    // session may have been started since the cache lookup, by a caller that is done by now.
+    Optional<SessionRecord> sessionRecordOptional = cache.get(cacheKey)
+        .map(SessionRecord::decode);
+    if (sessionRecordOptional.isPresent()) {
+      return continueExistingSession(config, cacheKey, botSendMessageRequest,
+          sessionRecordOptional.get());
+    }
+    if (sessionStartLease.isEmpty()) {
+      return startNewChatSession(config, externalSessionId, cacheKey, botSendMessageRequest);
+    }
 
-    addSequenceIds(botSendMessageRequest);
-    String runtimeSessionId = runtimeSessionIdOptional.get();
+    String leaseKey = getLeaseKey(cacheKey);
+    if (cache.setIfAbsent(leaseKey, leaseOwner, sessionStartLease.get().getSeconds())) {
+      try {
+        return startNewChatSession(config, externalSessionId, cacheKey, botSendMessageRequest);
+      } finally {
+        releaseLease(leaseKey);
+      }
+    }
+    return waitForCachedSession(cacheKey)
+        .map(sessionRecord -> continueExistingSession(config, cacheKey,
+            botSendMessageRequest, sessionRecord))
+        .orElseGet(() -> startNewChatSession(config, externalSessionId, cacheKey,
+            botSendMessageRequest));
+  }
 
-    return basicClient
-        .sendMessage(config, new RuntimeSessionId(runtimeSessionId), botSendMessageRequest);
+  private static Optional<SessionRecord> awaitSessionStart(
+      CompletableFuture<SessionRecord> sessionStart) {
+    try {
+      return Optional.of(sessionStart.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for session start", e);
+    } catch (ExecutionException | CancellationException e) {
+      return Optional.empty();
+    }
   }
 
-  private BotResponse startNewChatSession(RequestConfig config, ExternalSessionId externalSessionId,
+  /**
+   * Polls Cache for session id started by the instance holding session start lease, until the
+   * lease expires.
+   */
+  private Optional<SessionRecord> waitForCachedSession(String cacheKey) {
+    long deadline = System.nanoTime() + sessionStartLease.get().toNanos();
+    while (System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(SESSION_START_POLL_INTERVAL.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for session start", e);
+      }
+      Optional<String> cachedSession = cache.get(cacheKey);
+      if (cachedSession.isPresent()) {
+        return cachedSession.map(SessionRecord::decode);
+      }
+    }
+    logger.warn("Session start lease for {} expired without a session, starting new session",
+        cacheKey);
+    return Optional.empty();
+  }
+
+  private void releaseLease(String leaseKey) {
+    try {
+      // not atomic, but lease expires shortly anyway if another instance took it meanwhile.
+      if (cache.get(leaseKey).filter(leaseOwner::equals).isPresent()) {
+        cache.remove(leaseKey);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Failed to release session start lease {}. It will expire.", leaseKey, e);
+    }
+  }
+
+  private SessionResponse continueExistingSession(RequestConfig config, String cacheKey,
+      BotSendMessageRequest botSendMessageRequest, SessionRecord sessionRecord) {
+
+    BotSendMessageRequest requestEnvelope = withRuntimeCRC(botSendMessageRequest, sessionRecord);
+    long sequenceId = addSequenceIds(requestEnvelope, sessionRecord.getLastSequenceId());
+
+    BotResponse botResponse = basicClient.sendMessage(config,
+        new RuntimeSessionId(sessionRecord.getSessionId()), requestEnvelope);
+    SessionRecord newSessionRecord = SessionRecord.fromResponse(botResponse, sequenceId);
+    cacheSession(cacheKey, Optional.of(sessionRecord), newSessionRecord);
+    return new SessionResponse(botResponse, newSessionRecord);
+  }
+
+  private SessionResponse startNewChatSession(RequestConfig config,
+      ExternalSessionId externalSessionId, String cacheKey,
       BotSendMessageRequest requestEnvelope) {
 
-    requestEnvelope = updateContextVariables(requestEnvelope);
-    addSequenceIds(requestEnvelope);
+    requestEnvelope = updateContextVariables(requestEnvelope, integrationName);
+    long sequenceId = addSequenceIds(requestEnvelope, 0);
 
-    return basicClient
+    BotResponse botResponse = basicClient
         .startChatSession(config, externalSessionId, requestEnvelope);
+    SessionRecord sessionRecord = SessionRecord.fromResponse(botResponse, sequenceId);
+    cacheSession(cacheKey, Optional.empty(), sessionRecord);
+    return new SessionResponse(botResponse, sessionRecord);
   }
 
   @Override
   public BotResponse endChatSession(RequestConfig config, ExternalSessionId externalSessionId,
       BotEndSessionRequest botEndSessionRequest) {
 
-    String cacheKey = getCacheKey(
-        config.getOrgId(),
-        config.getBotId(),
-        externalSessionId.getValue());
+    String cacheKey = getCacheKey(config, externalSessionId.getValue());
 
-    String sessionId = cache.get(cacheKey)
+    SessionRecord sessionRecord = cache.get(cacheKey)
+        .map(SessionRecord::decode)
         .orElseThrow(() ->
             new IllegalStateException("No session found for given cacheKey : " + cacheKey));
 
     BotResponse botResonse = basicClient
-        .endChatSession(config, new RuntimeSessionId(sessionId),
-            botEndSessionRequest);
+        .endChatSession(config, new RuntimeSessionId(sessionRecord.getSessionId()),
+            withRuntimeCRC(botEndSessionRequest, sessionRecord));
 
     removeFromCache(cacheKey);
     return botResonse;
   }
 
-  private BotSendMessageRequest updateContextVariables(
-      BotSendMessageRequest botSendMessageRequest) {
+  @Override
+  public Map<ExternalSessionId, RuntimeSessionId> getRuntimeSessionIds(RequestConfig config,
+      Collection<ExternalSessionId> externalSessionIds) {
+
+    Map<String, ExternalSessionId> cacheKeys = getCacheKeys(config, externalSessionIds);
+    return toRuntimeSessionIds(cacheKeys, cache.getAll(cacheKeys.keySet()));
+  }
+
+  static Map<String, ExternalSessionId> getCacheKeys(RequestConfig config,
+      Collection<ExternalSessionId> externalSessionIds) {
+    String cacheKeyPrefix = cacheKeyPrefixes.get(config);
+    return externalSessionIds.stream()
+        .distinct()
+        .collect(Collectors.toMap(
+            externalSessionId -> cacheKeyPrefix.concat(externalSessionId.getValue()),
+            Function.identity()));
+  }
+
+  static Map<ExternalSessionId, RuntimeSessionId> toRuntimeSessionIds(
+      Map<String, ExternalSessionId> cacheKeys, Map<String, String> cachedSessions) {
+    return cachedSessions.entrySet().stream()
+        .collect(Collectors.toMap(entry -> cacheKeys.get(entry.getKey()),
+            entry -> new RuntimeSessionId(
+                SessionRecord.decode(entry.getValue()).getSessionId())));
+  }
+
+  /**
+   * Sets runtime CRC of the cached session on request, unless the caller set one.
+   */
+  static BotSendMessageRequest withRuntimeCRC(BotSendMessageRequest botSendMessageRequest,
+      SessionRecord sessionRecord) {
+    if (botSendMessageRequest.getRuntimeCRC().isPresent()
+        || sessionRecord.getRuntimeCRC().isEmpty()) {
+      return botSendMessageRequest;
+    }
+    return botSendMessageRequest
+        .clone()
+        .setRuntimeCRC(sessionRecord.getRuntimeCRC())
+        .build();
+  }
+
+  static BotEndSessionRequest withRuntimeCRC(BotEndSessionRequest botEndSessionRequest,
+      SessionRecord sessionRecord) {
+    if (botEndSessionRequest.getRuntimeCRC().isPresent()
+        || sessionRecord.getRuntimeCRC().isEmpty()) {
+      return botEndSessionRequest;
+    }
+    return botEndSessionRequest
+        .clone()
+        .setRuntimeCRC(sessionRecord.getRuntimeCRC())
+        .build();
+  }
+
+  static BotSendMessageRequest updateContextVariables(
+      BotSendMessageRequest botSendMessageRequest, Optional<String> integrationName) {
     List<AnyVariable> updatedVariables = addIntegrationTypeAndNameToContextVariables(
         botSendMessageRequest.getVariables(), integrationName);
 
@@ -126,21 +334,72 @@ public class SessionManagedChatbotClientImpl implements SessionManagedChatbotCli
         .build();
   }
 
-  private String getCacheKey(String orgId, String botId, String externalSessionId) {
-    return String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionId);
+  /**
+   * @return Cache key of external session id, built on the key prefix of the config. Configs are
+   * reused across requests, so the prefix is built once instead of on every lookup.
+   */
+  static String getCacheKey(RequestConfig config, String externalSessionId) {
+    return cacheKeyPrefixes.get(config).concat(externalSessionId);
+  }
+
+  static String getCacheKeyPrefix(String orgId, String botId) {
+    return "chatbot-" + orgId + "-" + botId + "-";
   }
 
-  private void cacheSessionId(String botId, String externalSessionId,
-      ResponseEnvelope responseEnvelope,
-      String orgId) {
-    cache.set(getCacheKey(orgId, botId, externalSessionId),
-        responseEnvelope.getSessionId());
+  static String getLeaseKey(String cacheKey) {
+    return "lease-" + cacheKey;
+  }
+
+  private void cacheSession(String cacheKey, Optional<SessionRecord> cachedSession,
+      SessionRecord sessionRecord) {
+    if (!cachedSession.filter(cached -> isUpToDate(cached, sessionRecord, compactSessionRecords,
+        sequenceIdRewriteIntervalMillis)).isPresent()) {
+      cache.set(cacheKey, compactSessionRecords
+          ? sessionRecord.encode() : sessionRecord.encodeLegacy());
+    } else if (ttlRefreshBuffer.isPresent()) {
+      ttlRefreshBuffer.get().add(cacheKey);
+    } else {
+      cache.refreshTtl(List.of(cacheKey));
+    }
+  }
+
+  /**
+   * @return Whether cached record does not need to be written again for given record of the next
+   * message. Sequence id changes with every message, so it is only written again once the cached
+   * one lags by the rewrite interval, which bounds how stale sequence ids read by other instances
+   * are.
+   */
+  static boolean isUpToDate(SessionRecord cachedSession, SessionRecord sessionRecord,
+      boolean compactSessionRecords, long sequenceIdRewriteIntervalMillis) {
+    if (!compactSessionRecords) {
+      return cachedSession.getSessionId().equals(sessionRecord.getSessionId());
+    }
+    return cachedSession.hasSameSession(sessionRecord)
+        && sessionRecord.getLastSequenceId() - cachedSession.getLastSequenceId()
+        < sequenceIdRewriteIntervalMillis;
+  }
+
+  /**
+   * @return Interval after which cached sequence id is written again. It is the TTL refresh
+   * interval, or the default one if TTL is refreshed on every message.
+   */
+  static long getSequenceIdRewriteIntervalMillis(Duration ttlRefreshInterval) {
+    return ttlRefreshInterval.isZero()
+        ? DEFAULT_TTL_REFRESH_INTERVAL.toMillis() : ttlRefreshInterval.toMillis();
   }
 
   private void removeFromCache(String cacheKey) {
     cache.remove(cacheKey);
   }
 
+  /**
+   * Flushes buffered TTL refreshes.
+   */
+  @Override
+  public void close() {
+    ttlRefreshBuffer.ifPresent(TtlRefreshBuffer::close);
+  }
+
   @Override
   public Status getHealthStatus() {
     return basicClient.getHealthStatus();
@@ -151,8 +410,30 @@ public class SessionManagedChatbotClientImpl implements SessionManagedChatbotCli
     return basicClient.getSupportedVersions();
   }
 
-  private void addSequenceIds(BotSendMessageRequest requestEnvelope) {
-    Long sequenceId = System.currentTimeMillis();
+  /**
+   * Sets sequence id of message to current time, or to one more than the last sequence id of the
+   * session read from Cache if that is later. The cached one may lag the last message of the
+   * session, so ordering of messages sent from different instances still relies on their clocks.
+   *
+   * @return Sequence id set on message.
+   */
+  static long addSequenceIds(BotSendMessageRequest requestEnvelope, long lastSequenceId) {
+    long sequenceId = Math.max(System.currentTimeMillis(), lastSequenceId + 1);
     requestEnvelope.getMessage().setSequenceId(sequenceId);
+    return sequenceId;
+  }
+
+  /**
+   * Response of a message, with the session record cached for it.
+   */
+  private static class SessionResponse {
+
+    private final BotResponse botResponse;
+    private final SessionRecord sessionRecord;
+
+    private SessionResponse(BotResponse botResponse, SessionRecord sessionRecord) {
+      this.botResponse = botResponse;
+      this.sessionRecord = sessionRecord;
+    }
   }
 }
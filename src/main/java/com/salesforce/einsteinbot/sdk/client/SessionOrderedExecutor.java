@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks of the same {@link ExternalSessionId} one at a time in the order they are submitted,
+ * and tasks of different sessions in parallel on given Executor. So messages of a session reach
+ * Einstein Bots Runtime in order without serializing all sessions, for eg.
+ * <pre>
+ *   executor.submit(externalSessionId,
+ *       () -> client.sendMessage(config, externalSessionId, request));
+ * </pre>
+ * <p>
+ * At most maxQueueDepth tasks wait per session. Tasks submitted to a session with a full queue
+ * fail with {@link RejectedExecutionException}, so that callers slow down instead of piling up
+ * work for a session that fell behind. After each task, the next task of the session is submitted
+ * to Executor again, so busy sessions do not hold a thread while other sessions wait.
+ */
+public class SessionOrderedExecutor {
+
+  private final Executor executor;
+  private final int maxQueueDepth;
+  // queues of sessions with a task running or waiting. Removed once empty.
+  private final Map<ExternalSessionId, Deque<SessionTask<?>>> queues = new ConcurrentHashMap<>();
+
+  /**
+   * @param executor      - Executor running the tasks. Its parallelism bounds how many sessions
+   *                      run at the same time.
+   * @param maxQueueDepth - Maximum number of tasks waiting per session.
+   */
+  public SessionOrderedExecutor(Executor executor, int maxQueueDepth) {
+    Objects.requireNonNull(executor);
+    if (maxQueueDepth < 1) {
+      throw new IllegalArgumentException("maxQueueDepth should be at least 1");
+    }
+    this.executor = executor;
+    this.maxQueueDepth = maxQueueDepth;
+  }
+
+  /**
+   * Runs given task after all tasks previously submitted for the same session.
+   *
+   * @return Future completed with the result of task, or failed with {@link
+   * RejectedExecutionException} if too many tasks of the session are waiting.
+   */
+  public <T> CompletableFuture<T> submit(ExternalSessionId externalSessionId, Supplier<T> task) {
+    Objects.requireNonNull(externalSessionId);
+    Objects.requireNonNull(task);
+    SessionTask<T> sessionTask = new SessionTask<>(task);
+    boolean[] accepted = {true};
+    boolean[] start = {false};
+    queues.compute(externalSessionId, (sessionId, queue) -> {
+      if (queue == null) {
+        queue = new ArrayDeque<>();
+        start[0] = true;
+      } else if (queue.size() >= maxQueueDepth) {
+        accepted[0] = false;
+        return queue;
+      }
+      queue.add(sessionTask);
+      return queue;
+    });
+
+    if (!accepted[0]) {
+      sessionTask.result.completeExceptionally(new RejectedExecutionException(
+          "More than " + maxQueueDepth + " tasks are waiting for session " + externalSessionId));
+    } else if (start[0]) {
+      scheduleNext(externalSessionId);
+    }
+    return sessionTask.result;
+  }
+
+  private void scheduleNext(ExternalSessionId externalSessionId) {
+    try {
+      executor.execute(() -> runNext(externalSessionId));
+    } catch (RejectedExecutionException e) {
+      Deque<SessionTask<?>> queue = queues.remove(externalSessionId);
+      if (queue != null) {
+        queue.forEach(sessionTask -> sessionTask.result.completeExceptionally(e));
+      }
+    }
+  }
+
+  private void runNext(ExternalSessionId externalSessionId) {
+    SessionTask<?>[] next = new SessionTask<?>[1];
+    queues.computeIfPresent(externalSessionId, (sessionId, queue) -> {
+      next[0] = queue.poll();
+      // removing the empty queue lets the next submit schedule this session again.
+      return next[0] == null ? null : queue;
+    });
+    if (next[0] != null) {
+      next[0].run();
+      scheduleNext(externalSessionId);
+    }
+  }
+
+  private static class SessionTask<T> {
+
+    private final Supplier<T> task;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private SessionTask(Supplier<T> task) {
+      this.task = task;
+    }
+
+    private void run() {
+      try {
+        result.complete(task.get());
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders.HEADER_NAME_RUNTIME_CRC;
+
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Session of an external session id as stored in Cache: Runtime session id, runtime CRC of the
+ * last response and sequence id of the last message.
+ * <p>
+ * Encoded as a single value "sessionId;lastSequenceId;runtimeCRC". A value without separator is a
+ * session id cached by earlier versions, without runtime CRC and sequence id.
+ * <p>
+ * Session ids that are UUIDs are encoded compactly as "~", the 16 bytes of the UUID in url safe
+ * Base64 and the sequence id in radix 36, followed by ";runtimeCRC". This takes 32 bytes instead
+ * of 51 for session id and sequence id.
+ * <p>
+ * Earlier versions read any cached value as a plain session id, so {@link #encodeLegacy()} is used
+ * unless compact session records are enabled on the client. Both encodings are always decoded.
+ */
+final class SessionRecord {
+
+  private static final char SEPARATOR = ';';
+  private static final char COMPACT_MARKER = '~';
+  private static final int UUID_LENGTH = 36;
+  private static final int COMPACT_UUID_LENGTH = 22;
+  private static final int SEQUENCE_ID_RADIX = 36;
+  private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+  private final String sessionId;
+  private final long lastSequenceId;
+  private final Optional<String> runtimeCRC;
+
+  SessionRecord(String sessionId, long lastSequenceId, Optional<String> runtimeCRC) {
+    Objects.requireNonNull(sessionId);
+    Objects.requireNonNull(runtimeCRC);
+    this.sessionId = sessionId;
+    this.lastSequenceId = lastSequenceId;
+    this.runtimeCRC = runtimeCRC;
+  }
+
+  static SessionRecord fromResponse(BotResponse botResponse, long lastSequenceId) {
+    return new SessionRecord(botResponse.getResponseEnvelope().getSessionId(), lastSequenceId,
+        botResponse.getHttpHeaders().getFirst(HEADER_NAME_RUNTIME_CRC));
+  }
+
+  static SessionRecord decode(String value) {
+    if (value.length() > COMPACT_UUID_LENGTH + 1 && value.charAt(0) == COMPACT_MARKER) {
+      return decodeCompact(value);
+    }
+    int sequenceIdStart = value.indexOf(SEPARATOR);
+    int runtimeCRCStart = value.indexOf(SEPARATOR, sequenceIdStart + 1);
+    if (sequenceIdStart < 0 || runtimeCRCStart < 0) {
+      return new SessionRecord(value, 0, Optional.empty());
+    }
+    String runtimeCRC = value.substring(runtimeCRCStart + 1);
+    return new SessionRecord(value.substring(0, sequenceIdStart),
+        Long.parseLong(value.substring(sequenceIdStart + 1, runtimeCRCStart)),
+        runtimeCRC.isEmpty() ? Optional.empty() : Optional.of(runtimeCRC));
+  }
+
+  private static SessionRecord decodeCompact(String value) {
+    int sequenceIdStart = COMPACT_UUID_LENGTH + 1;
+    int runtimeCRCStart = value.indexOf(SEPARATOR, sequenceIdStart);
+    ByteBuffer uuid = ByteBuffer
+        .wrap(BASE64_DECODER.decode(value.substring(1, sequenceIdStart)));
+    String runtimeCRC = value.substring(runtimeCRCStart + 1);
+    return new SessionRecord(new UUID(uuid.getLong(), uuid.getLong()).toString(),
+        Long.parseLong(value, sequenceIdStart, runtimeCRCStart, SEQUENCE_ID_RADIX),
+        runtimeCRC.isEmpty() ? Optional.empty() : Optional.of(runtimeCRC));
+  }
+
+  String encode() {
+    Optional<UUID> uuid = toUUID(sessionId);
+    if (uuid.isPresent()) {
+      ByteBuffer uuidBytes = ByteBuffer.allocate(16)
+          .putLong(uuid.get().getMostSignificantBits())
+          .putLong(uuid.get().getLeastSignificantBits());
+      return COMPACT_MARKER + BASE64_ENCODER.encodeToString(uuidBytes.array())
+          + Long.toString(lastSequenceId, SEQUENCE_ID_RADIX) + SEPARATOR + runtimeCRC.orElse("");
+    }
+    return sessionId + SEPARATOR + lastSequenceId + SEPARATOR + runtimeCRC.orElse("");
+  }
+
+  /**
+   * @return Session id alone, as cached by earlier versions.
+   */
+  String encodeLegacy() {
+    return sessionId;
+  }
+
+  /**
+   * @return UUID of session id, if session id is a UUID in its canonical lower case form, so that
+   * it is decoded back to the same string.
+   */
+  private static Optional<UUID> toUUID(String sessionId) {
+    if (sessionId.length() != UUID_LENGTH || sessionId.charAt(8) != '-') {
+      return Optional.empty();
+    }
+    try {
+      UUID uuid = UUID.fromString(sessionId);
+      return uuid.toString().equals(sessionId) ? Optional.of(uuid) : Optional.empty();
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  String getSessionId() {
+    return sessionId;
+  }
+
+  long getLastSequenceId() {
+    return lastSequenceId;
+  }
+
+  Optional<String> getRuntimeCRC() {
+    return runtimeCRC;
+  }
+
+  /**
+   * @return Whether given record has the same session id and runtime CRC.
+   */
+  boolean hasSameSession(SessionRecord other) {
+    return sessionId.equals(other.sessionId) && runtimeCRC.equals(other.runtimeCRC);
+  }
+}
@@ -32,6 +32,10 @@ public class BotEndSessionRequest extends BotRequest {
     return endSessionReason;
   }
 
+  public FinalCloneBuilder<BotEndSessionRequest> clone() {
+    return new FluentBuilder<>(this);
+  }
+
   @Override
   public String toString() {
     return new StringJoiner(", ", BotEndSessionRequest.class.getSimpleName() + "{",
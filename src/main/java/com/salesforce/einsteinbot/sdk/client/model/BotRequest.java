@@ -115,7 +115,7 @@ public class BotRequest {
       this.referrers = requestEnvelope.getReferrers();
     }
 
-    private FluentBuilder(BotEndSessionRequest requestEnvelope) {
+    public FluentBuilder(BotEndSessionRequest requestEnvelope) {
       this(requestEnvelope.getEndSessionReason());
       this.requestId = requestEnvelope.getRequestId();
       this.runtimeCRC = requestEnvelope.getRuntimeCRC();
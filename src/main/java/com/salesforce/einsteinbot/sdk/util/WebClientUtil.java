@@ -10,6 +10,8 @@ package com.salesforce.einsteinbot.sdk.util;
 import static com.salesforce.einsteinbot.sdk.util.UtilFunctions.maskAuthorizationHeader;
 
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import com.salesforce.einsteinbot.sdk.model.Error;
 import org.slf4j.Logger;
@@ -59,6 +61,47 @@ public class WebClientUtil {
         );
   }
 
+  /**
+   * Creates filter that resolves bearer token for each request and sets it in Authorization
+   * header, so that token is never shared between concurrent requests.
+   * <p>
+   * When a request is rejected as unauthorized, its token is invalidated and the request is retried
+   * once with a new token. It is not retried if token supplier still returns the rejected token.
+   *
+   * @param requiresToken     predicate to select requests that need Authorization header
+   * @param tokenSupplier     supplies token to use for a request
+   * @param isUnauthorized    predicate to select errors caused by a rejected token
+   * @param tokenInvalidator  invalidates given rejected token
+   */
+  public static ExchangeFilterFunction createBearerTokenFilter(
+      Predicate<ClientRequest> requiresToken,
+      Supplier<Mono<String>> tokenSupplier,
+      Predicate<Throwable> isUnauthorized,
+      Function<String, Mono<Void>> tokenInvalidator) {
+    return (clientRequest, next) -> {
+      if (!requiresToken.test(clientRequest)) {
+        return next.exchange(clientRequest);
+      }
+      return tokenSupplier.get()
+          .flatMap(token -> next.exchange(withBearerToken(clientRequest, token))
+              .onErrorResume(isUnauthorized, error -> tokenInvalidator.apply(token)
+                  .then(tokenSupplier.get())
+                  .filter(newToken -> !newToken.equals(token))
+                  .flatMap(newToken -> {
+                    logger.info("Request was unauthorized. Retrying with new token.");
+                    return next.exchange(withBearerToken(clientRequest, newToken));
+                  })
+                  .switchIfEmpty(Mono.error(error))))
+          .switchIfEmpty(Mono.defer(() -> next.exchange(clientRequest)));
+    };
+  }
+
+  private static ClientRequest withBearerToken(ClientRequest clientRequest, String token) {
+    return ClientRequest.from(clientRequest)
+        .headers(headers -> headers.setBearerAuth(token))
+        .build();
+  }
+
   public static BodyExtractor<Mono<Error>, ReactiveHttpInputMessage> errorBodyExtractor() {
     BodyExtractor<Mono<Error>, ReactiveHttpInputMessage> extractor = (inputMessage, context) -> {
       HttpHeaders headers = inputMessage.getHeaders();
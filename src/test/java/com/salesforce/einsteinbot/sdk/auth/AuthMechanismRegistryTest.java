@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AuthMechanismRegistry
+ */
+public class AuthMechanismRegistryTest {
+
+  private final String token = "00DRM0000006k89!AREAQOYXyPiK";
+  private final String tokenResponse = "{\"access_token\":\"" + token + "\","
+      + "\"scope\":\"chatbot_api full\",\"token_type\":\"Bearer\"}";
+
+  private static PrivateKey privateKey;
+  private static MockWebServer mockBackEnd;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+    keyGen.initialize(2048);
+    privateKey = keyGen.generateKeyPair().getPrivate();
+    mockBackEnd = new MockWebServer();
+    mockBackEnd.start();
+  }
+
+  @AfterAll
+  static void tearDown() throws IOException {
+    mockBackEnd.shutdown();
+  }
+
+  @Test
+  public void getReturnsSameAuthMechanismForTenant() {
+    try (AuthMechanismRegistry registry = AuthMechanismRegistry.builder().build()) {
+      registry.register("org1", createOAuthBuilder("app1"));
+
+      assertSame(registry.get("org1"), registry.get("org1"));
+      assertThrows(IllegalArgumentException.class, () -> registry.get("org2"));
+    }
+  }
+
+  @Test
+  public void leastRecentlyUsedAuthMechanismIsEvicted() {
+    try (AuthMechanismRegistry registry = AuthMechanismRegistry.builder()
+        .maximumSize(1)
+        .build()) {
+      registry.register("org1", createOAuthBuilder("app1"));
+      registry.register("org2", createOAuthBuilder("app2"));
+
+      mockBackEnd.enqueue(createTokenResponse());
+      mockBackEnd.enqueue(createTokenResponse());
+      mockBackEnd.enqueue(createTokenResponse());
+
+      AuthMechanism org1AuthMechanism = registry.get("org1");
+      assertEquals(token, org1AuthMechanism.getToken());
+      assertEquals(token, registry.get("org2").getToken());
+      assertEquals(1, registry.getLiveCount());
+
+      // AuthMechanism held by clients creates evicted JwtBearerOAuth again on next use.
+      assertSame(org1AuthMechanism, registry.get("org1"));
+      assertEquals(token, org1AuthMechanism.getToken());
+      assertEquals(1, registry.getLiveCount());
+    }
+  }
+
+  @Test
+  public void registerDoesNotChangeGivenBuilder() {
+    try (AuthMechanismRegistry registry = AuthMechanismRegistry.builder().build()) {
+      JwtBearerOAuth.FluentBuilder oAuthBuilder = (JwtBearerOAuth.FluentBuilder)
+          createOAuthBuilder("app1");
+
+      registry.register("org1", oAuthBuilder);
+
+      assertTrue(oAuthBuilder.webClient.isEmpty());
+    }
+  }
+
+  @Test
+  public void prewarmRetrievesTokensOfAllTenants() throws Exception {
+    try (AuthMechanismRegistry registry = AuthMechanismRegistry.builder().build()) {
+      registry.register("org1", createOAuthBuilder("app1"));
+      registry.register("org2", createOAuthBuilder("app2"));
+      mockBackEnd.enqueue(createTokenResponse());
+      mockBackEnd.enqueue(createTokenResponse());
+
+      int requestCountBefore = mockBackEnd.getRequestCount();
+      registry.prewarm().get(10, TimeUnit.SECONDS);
+      assertEquals(2, mockBackEnd.getRequestCount() - requestCountBefore);
+
+      // tokens are then served from process memory.
+      assertEquals(token, registry.get("org1").getToken());
+      assertEquals(token, registry.get("org2").getToken());
+      assertEquals(2, mockBackEnd.getRequestCount() - requestCountBefore);
+    }
+  }
+
+  private JwtBearerOAuth.FinalBuilder createOAuthBuilder(String connectedAppId) {
+    return JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(String.format("http://localhost:%s", mockBackEnd.getPort()))
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret("secret")
+        .userId("botsUser@company.org")
+        .introspectionMode(IntrospectionMode.DISABLED)
+        .tokenLifetime(Duration.ofHours(2));
+  }
+
+  private MockResponse createTokenResponse() {
+    return new MockResponse()
+        .setBody(tokenResponse)
+        .addHeader("Content-Type", "application/json");
+  }
+}
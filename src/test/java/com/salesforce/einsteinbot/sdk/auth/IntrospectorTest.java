@@ -8,9 +8,12 @@
 package com.salesforce.einsteinbot.sdk.auth;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -82,6 +85,55 @@ public class IntrospectorTest {
     assertEquals(1639091586L, result.getExp());
   }
 
+  @Test
+  public void introspectResultIsCachedUntilTokenExpires() throws InterruptedException {
+    String token = "token456";
+    Introspector introspector = new Introspector(connectedAppId, connectedAppSecret, endpoint);
+    String activeResponse = introspectResponse.replace("1639091586",
+        String.valueOf(Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond()));
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setBody(activeResponse)
+        .addHeader("Content-Type", "application/json"));
+    int requestCountBefore = mockBackEnd.getRequestCount();
+
+    IntrospectionResult result = introspector.introspect(token);
+    IntrospectionResult cachedResult = introspector.introspect(token);
+
+    assertEquals(1, mockBackEnd.getRequestCount() - requestCountBefore);
+    assertSame(result, cachedResult);
+    takeRequests(1);
+  }
+
+  @Test
+  public void introspectResultOfExpiredTokenIsNotCached() throws InterruptedException {
+    String token = "token789";
+    Introspector introspector = new Introspector(connectedAppId, connectedAppSecret, endpoint);
+
+    // exp of the response is in the past.
+    for (int i = 0; i < 2; i++) {
+      mockBackEnd.enqueue(new MockResponse()
+          .setBody(introspectResponse)
+          .addHeader("Content-Type", "application/json"));
+    }
+    int requestCountBefore = mockBackEnd.getRequestCount();
+
+    introspector.introspect(token);
+    introspector.introspect(token);
+
+    assertEquals(2, mockBackEnd.getRequestCount() - requestCountBefore);
+    takeRequests(2);
+  }
+
+  /**
+   * Takes recorded requests off the shared server, so that other tests see only their own.
+   */
+  private void takeRequests(int count) throws InterruptedException {
+    for (int i = 0; i < count; i++) {
+      mockBackEnd.takeRequest();
+    }
+  }
+
   private String getAuthorization() {
     String auth = this.connectedAppId + ":" + this.connectedAppSecret;
     byte[] encodedAuth = Base64.getEncoder().encode(
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the CPU work done by {@link JwtBearerOAuth} for a token refresh, i.e. creating
+ * JWT assertion and parsing token response. Network calls are not included.
+ * <p>
+ * {@link #refreshWithNewAssertion()} does the work as it was done for every refresh before JWT
+ * assertion, Algorithm and ObjectMapper were reused. {@link #refreshWithReusedAssertion()} uses
+ * JwtBearerOAuth as it is now.
+ * <p>
+ * Run using main method, for eg. from IDE after test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtBearerOAuthBenchmark {
+
+  private static final String LOGIN_ENDPOINT = "https://login.salesforce.com";
+  private static final String CONNECTED_APP_ID = "abcdefghi";
+  private static final String USER_ID = "botsUser@company.org";
+  private static final String TOKEN_RESPONSE = "{\"access_token\":\"00DRM0000006k89!AREAQOYXyPiK\","
+      + "\"scope\":\"chatbot_api full\",\"instance_url\":\"https://drm0000006k892aa.my.salesforce.com\","
+      + "\"id\":\"https://login.salesforce.com/id/00DRM0000006k892AA/005RM000001a3FgYAI\","
+      + "\"token_type\":\"Bearer\"}";
+
+  private PrivateKey privateKey;
+  private JwtBearerOAuth oAuth;
+
+  @Setup
+  public void setup() throws Exception {
+    KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+    keyGen.initialize(2048);
+    privateKey = keyGen.generateKeyPair().getPrivate();
+    oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(LOGIN_ENDPOINT)
+        .connectedAppId(CONNECTED_APP_ID)
+        .connectedAppSecret("secret")
+        .userId(USER_ID)
+        .build();
+  }
+
+  @Benchmark
+  public String refreshWithNewAssertion() throws Exception {
+    Map<String, Object> headers = new HashMap<String, Object>();
+    headers.put("alg", "RS256");
+    Algorithm algorithm = Algorithm.RSA256(null, (RSAPrivateKey) privateKey);
+    JWT.create()
+        .withHeader(headers)
+        .withAudience(LOGIN_ENDPOINT)
+        .withExpiresAt(Date.from(Instant.now().plus(15, ChronoUnit.MINUTES)))
+        .withIssuer(CONNECTED_APP_ID)
+        .withSubject(USER_ID)
+        .sign(algorithm);
+    ObjectNode node = new ObjectMapper().readValue(TOKEN_RESPONSE, ObjectNode.class);
+    return node.get("access_token").asText();
+  }
+
+  @Benchmark
+  public String refreshWithReusedAssertion() {
+    oAuth.getJwtAssertion();
+    ObjectNode node = JwtBearerOAuth.parseTokenResponse(TOKEN_RESPONSE);
+    return node.get("access_token").asText();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+        .include(JwtBearerOAuthBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
@@ -8,18 +8,36 @@
 package com.salesforce.einsteinbot.sdk.auth;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.salesforce.einsteinbot.sdk.cache.Cache;
+import com.salesforce.einsteinbot.sdk.cache.InMemoryCache;
+import com.salesforce.einsteinbot.sdk.exception.OAuthResponseException;
 import java.io.IOException;
 import java.security.PrivateKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -31,6 +49,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
 /**
  * Unit tests for JwtBearerOAuth
@@ -59,6 +80,9 @@ public class JwtBearerOAuthTest {
   @Mock
   private Cache mockCache;
 
+  @Mock
+  private TokenRefreshListener mockRefreshListener;
+
   public static MockWebServer mockBackEnd;
 
   @BeforeAll
@@ -98,9 +122,9 @@ public class JwtBearerOAuthTest {
     setupMocks((JwtBearerOAuth) oAuth);
     verifyToken(oAuth);
 
-    // verify token is cached
+    // verify token is cached, and reused from process memory for second call.
     ArgumentCaptor<Long> ttlCaptor = ArgumentCaptor.forClass(Long.class);
-    verify(mockCache, times(2)).set(eq(getCacheKey()), eq(token), ttlCaptor.capture());
+    verify(mockCache, times(1)).set(eq(getCacheKey()), eq(token), ttlCaptor.capture());
     assertTrue(ttlCaptor.getValue() > 6500,
         "ttl is too short"); // ttl should be just under two hours
     assertTrue(ttlCaptor.getValue() < 7200, "ttl is too long");
@@ -125,13 +149,11 @@ public class JwtBearerOAuthTest {
         .setBody(tokenResponse)
         .addHeader("Content-Type", "application/json");
     mockBackEnd.enqueue(mockResponse);
-    mockBackEnd.enqueue(mockResponse);
 
     IntrospectionResult introspectionResult = new IntrospectionResult(true,
         Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond()); //expires after two hours
 
-    when(mockIntrospector.introspect(token)).thenReturn(introspectionResult)
-        .thenReturn(introspectionResult);
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(introspectionResult));
   }
 
   @Test
@@ -161,6 +183,304 @@ public class JwtBearerOAuthTest {
     when(mockCache.get(getCacheKey())).thenReturn(Optional.of(token));
 
     assertEquals(token, oAuth.getToken());
+    assertEquals(token, oAuth.getToken());
+
+    // second call is served from process memory.
+    verify(mockCache, times(1)).get(getCacheKey());
+  }
+
+  @Test
+  public void getOAuthTokenConcurrentlyRetrievesTokenOnce() throws Exception {
+    AuthMechanism oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .cache(new InMemoryCache(600))
+        .build();
+    ((JwtBearerOAuth) oAuth).setIntrospector(mockIntrospector);
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(new IntrospectionResult(
+        true, Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond())));
+
+    // slow token response, so that all callers arrive while retrieval is in flight.
+    mockBackEnd.enqueue(new MockResponse()
+        .setBody(tokenResponse)
+        .addHeader("Content-Type", "application/json")
+        .setBodyDelay(1, TimeUnit.SECONDS));
+
+    int callers = 10;
+    int requestCountBefore = mockBackEnd.getRequestCount();
+    CyclicBarrier barrier = new CyclicBarrier(callers);
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<String>> results = IntStream.range(0, callers)
+          .mapToObj(i -> executor.submit(() -> {
+            barrier.await();
+            return oAuth.getToken();
+          }))
+          .collect(Collectors.toList());
+
+      for (Future<String> result : results) {
+        assertEquals(token, result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, mockBackEnd.getRequestCount() - requestCountBefore);
+    mockBackEnd.takeRequest();
+    verify(mockIntrospector, times(1)).introspectAsync(token);
+  }
+
+  @Test
+  public void refreshLeaseLetsOneInstanceRetrieveToken() throws Exception {
+    Cache sharedCache = new InMemoryCache(600);
+    List<JwtBearerOAuth> instances = List.of(buildRefreshLeaseOAuth(sharedCache),
+        buildRefreshLeaseOAuth(sharedCache));
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(new IntrospectionResult(
+        true, Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond())));
+
+    // slow token response, so that both instances miss the cache.
+    mockBackEnd.enqueue(createTokenResponse().setBodyDelay(1, TimeUnit.SECONDS));
+
+    int requestCountBefore = mockBackEnd.getRequestCount();
+    CyclicBarrier barrier = new CyclicBarrier(instances.size());
+    ExecutorService executor = Executors.newFixedThreadPool(instances.size());
+    try {
+      List<Future<String>> results = instances.stream()
+          .map(oAuth -> executor.submit(() -> {
+            barrier.await();
+            return oAuth.getToken();
+          }))
+          .collect(Collectors.toList());
+
+      for (Future<String> result : results) {
+        assertEquals(token, result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, mockBackEnd.getRequestCount() - requestCountBefore);
+    mockBackEnd.takeRequest();
+    // lease is released once token is cached.
+    assertEquals(Optional.empty(), sharedCache.get("bots-oAuthToken-lease-" + connectedAppId));
+  }
+
+  @Test
+  public void refreshLeaseHeldByAnotherInstanceWaitsForCachedToken() {
+    Cache sharedCache = new InMemoryCache(600);
+    JwtBearerOAuth oAuth = buildRefreshLeaseOAuth(sharedCache);
+    sharedCache.set("bots-oAuthToken-lease-" + connectedAppId, "anotherInstance");
+
+    int requestCountBefore = mockBackEnd.getRequestCount();
+    // lease holder caches token a little later.
+    Schedulers.single().schedule(() -> sharedCache.set(getCacheKey(), token),
+        300, TimeUnit.MILLISECONDS);
+
+    assertEquals(token, oAuth.getToken());
+    assertEquals(requestCountBefore, mockBackEnd.getRequestCount());
+    verifyNoInteractions(mockIntrospector);
+  }
+
+  @Test
+  public void refreshAheadRenewsTokenBeforeExpiry() {
+    JwtBearerOAuth oAuth = buildRefreshAheadOAuth();
+    mockBackEnd.enqueue(createTokenResponse());
+    mockBackEnd.enqueue(createTokenResponse());
+    // first token expires sooner than refreshAhead, so that it is refreshed half way through.
+    when(mockIntrospector.introspectAsync(token))
+        .thenReturn(Mono.just(new IntrospectionResult(true,
+            Instant.now().plus(4, ChronoUnit.SECONDS).getEpochSecond())))
+        .thenReturn(Mono.just(new IntrospectionResult(true,
+            Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond())));
+
+    try {
+      assertEquals(token, oAuth.getToken());
+
+      verify(mockRefreshListener, timeout(5000)).onTokenRefreshed(any(Instant.class));
+      verify(mockCache, times(2)).set(eq(getCacheKey()), eq(token), anyLong());
+      verify(mockRefreshListener, never()).onTokenRefreshFailed(any());
+    } finally {
+      oAuth.close();
+    }
+  }
+
+  @Test
+  public void refreshAheadFailureIsReportedToListener() {
+    JwtBearerOAuth oAuth = buildRefreshAheadOAuth();
+    mockBackEnd.enqueue(createTokenResponse());
+    mockBackEnd.enqueue(new MockResponse().setResponseCode(500).setBody("Server Error"));
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(new IntrospectionResult(
+        true, Instant.now().plus(4, ChronoUnit.SECONDS).getEpochSecond())));
+
+    try {
+      assertEquals(token, oAuth.getToken());
+
+      verify(mockRefreshListener, timeout(5000))
+          .onTokenRefreshFailed(any(OAuthResponseException.class));
+      verify(mockCache, times(1)).set(eq(getCacheKey()), eq(token), anyLong());
+    } finally {
+      oAuth.close();
+    }
+  }
+
+  @Test
+  public void refreshAheadWithinCacheExpiryMarginIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .refreshAhead(Duration.ofMinutes(5)));
+  }
+
+  @Test
+  public void getOAuthTokenAsyncDoesNotBlock() {
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .build();
+    oAuth.setIntrospector(mockIntrospector);
+    mockBackEnd.enqueue(createTokenResponse());
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(new IntrospectionResult(
+        true, Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond())));
+
+    // parallel scheduler threads reject blocking calls, so this fails if retrieval blocks.
+    StepVerifier.create(oAuth.getTokenAsync().subscribeOn(Schedulers.parallel()))
+        .expectNext(token)
+        .verifyComplete();
+
+    // token is then served from process memory.
+    StepVerifier.create(oAuth.getTokenAsync().subscribeOn(Schedulers.parallel()))
+        .expectNext(token)
+        .verifyComplete();
+  }
+
+  @Test
+  public void jwtAssertionIsReused() {
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .build();
+
+    assertSame(oAuth.getJwtAssertion(), oAuth.getJwtAssertion());
+  }
+
+  @Test
+  public void getOAuthTokenWithIntrospectionDisabled() {
+    JwtBearerOAuth oAuth = buildOAuthWithIntrospectionMode(IntrospectionMode.DISABLED);
+    mockBackEnd.enqueue(createTokenResponse());
+
+    assertEquals(token, oAuth.getToken());
+
+    // ttl is derived from configured token lifetime of two hours.
+    ArgumentCaptor<Long> ttlCaptor = ArgumentCaptor.forClass(Long.class);
+    verify(mockCache).set(eq(getCacheKey()), eq(token), ttlCaptor.capture());
+    assertTrue(ttlCaptor.getValue() > 6500, "ttl is too short");
+    assertTrue(ttlCaptor.getValue() < 7200, "ttl is too long");
+    verifyNoInteractions(mockIntrospector);
+  }
+
+  @Test
+  public void getOAuthTokenWithAsyncIntrospectionDiscardsInactiveToken() {
+    JwtBearerOAuth oAuth = buildOAuthWithIntrospectionMode(IntrospectionMode.ASYNC);
+    mockBackEnd.enqueue(createTokenResponse());
+    when(mockIntrospector.introspectAsync(token))
+        .thenReturn(Mono.just(new IntrospectionResult(false, 0)));
+
+    // token is returned without waiting for introspection.
+    assertEquals(token, oAuth.getToken());
+
+    verify(mockCache, timeout(5000)).remove(getCacheKey());
+  }
+
+  @Test
+  public void invalidateTokenRetrievesNewTokenOnce() {
+    Cache sharedCache = new InMemoryCache(600);
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .cache(sharedCache)
+        .build();
+    oAuth.setIntrospector(mockIntrospector);
+    mockBackEnd.enqueue(createTokenResponse());
+    mockBackEnd.enqueue(createTokenResponse());
+    when(mockIntrospector.introspectAsync(token)).thenReturn(Mono.just(new IntrospectionResult(
+        true, Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond())));
+
+    int requestCountBefore = mockBackEnd.getRequestCount();
+    assertEquals(token, oAuth.getToken());
+
+    oAuth.invalidateToken(token);
+    assertEquals(Optional.empty(), sharedCache.get(getCacheKey()));
+    assertEquals(token, oAuth.getToken());
+
+    // token that was already replaced is not invalidated again.
+    oAuth.invalidateToken("staleToken");
+    assertEquals(token, oAuth.getToken());
+    assertEquals(2, mockBackEnd.getRequestCount() - requestCountBefore);
+  }
+
+  private JwtBearerOAuth buildOAuthWithIntrospectionMode(IntrospectionMode introspectionMode) {
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .cache(mockCache)
+        .introspectionMode(introspectionMode)
+        .tokenLifetime(Duration.ofHours(2))
+        .build();
+    oAuth.setIntrospector(mockIntrospector);
+    return oAuth;
+  }
+
+  private JwtBearerOAuth buildRefreshLeaseOAuth(Cache cache) {
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .cache(cache)
+        .refreshLease(Duration.ofSeconds(5))
+        .build();
+    oAuth.setIntrospector(mockIntrospector);
+    return oAuth;
+  }
+
+  private JwtBearerOAuth buildRefreshAheadOAuth() {
+    JwtBearerOAuth oAuth = JwtBearerOAuth.with()
+        .privateKey(privateKey)
+        .loginEndpoint(loginEndpoint)
+        .connectedAppId(connectedAppId)
+        .connectedAppSecret(connectedAppSecret)
+        .userId(userId)
+        .cache(mockCache)
+        .refreshAhead(Duration.ofMinutes(10))
+        .tokenRefreshListener(mockRefreshListener)
+        .build();
+    oAuth.setIntrospector(mockIntrospector);
+    return oAuth;
+  }
+
+  private MockResponse createTokenResponse() {
+    return new MockResponse()
+        .setBody(tokenResponse)
+        .addHeader("Content-Type", "application/json");
   }
 
   private String getCacheKey() {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for CacheSnapshotter
+ */
+public class CacheSnapshotterTest {
+
+  private final AtomicLong currentTimeMillis = new AtomicLong(System.currentTimeMillis());
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void restoresEntriesWithRemainingTtl() {
+    Path file = tempDir.resolve("sessions.snapshot");
+    OffHeapCache cache = createOffHeapCache();
+    cache.set("key1", "value1", 600);
+    cache.set("key2", "value2", 10);
+    new CacheSnapshotter(cache, file, currentTimeMillis::get).close();
+
+    advanceSeconds(20);
+    OffHeapCache restoredCache = createOffHeapCache();
+    int restored = new CacheSnapshotter(restoredCache, file, currentTimeMillis::get).restore();
+
+    assertEquals(1, restored);
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+    assertEquals(Optional.empty(), restoredCache.get("key2"));
+    advanceSeconds(580);
+    assertEquals(Optional.empty(), restoredCache.get("key1"));
+  }
+
+  @Test
+  public void restoresInMemoryCacheSnapshot() {
+    Path file = tempDir.resolve("sessions.snapshot");
+    InMemoryCache cache = new InMemoryCache(600);
+    cache.set("key1", "value1");
+    cache.set("key2", "value2", 60);
+
+    assertEquals(2, new CacheSnapshotter(cache, file).snapshot());
+
+    InMemoryCache restoredCache = new InMemoryCache(600);
+    assertEquals(2, new CacheSnapshotter(restoredCache, file).restore());
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+    assertEquals(Optional.of("value2"), restoredCache.get("key2"));
+  }
+
+  @Test
+  public void restoresSlidingExpiryOfInMemoryCacheEntries() {
+    Path file = tempDir.resolve("sessions.snapshot");
+    InMemoryCache cache = new InMemoryCache(600);
+    cache.set("key1", "value1");
+    cache.set("key2", "value2", 60);
+    new CacheSnapshotter(cache, file).snapshot();
+
+    AtomicLong nanoTime = new AtomicLong();
+    InMemoryCache restoredCache = new InMemoryCache(600, 100, nanoTime::get);
+    new CacheSnapshotter(restoredCache, file).restore();
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(500));
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(500));
+
+    // expiry of key1 was extended on access, while key2 expired after its ttlSeconds.
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+    assertEquals(Optional.empty(), restoredCache.get("key2"));
+  }
+
+  @Test
+  public void restoreSkipsEntriesRejectedByCache() {
+    Path file = tempDir.resolve("sessions.snapshot");
+    InMemoryCache cache = new InMemoryCache(600);
+    cache.set("key1", "value1");
+    cache.set("key2", "a value longer than the restored cache accepts");
+    cache.set("key3", "value3");
+    new CacheSnapshotter(cache, file, currentTimeMillis::get).snapshot();
+
+    OffHeapCache restoredCache = new OffHeapCache(600, 100, OffHeapCache.DEFAULT_MAX_KEY_BYTES, 10,
+        currentTimeMillis::get);
+
+    assertEquals(2, new CacheSnapshotter(restoredCache, file, currentTimeMillis::get).restore());
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+    assertEquals(Optional.empty(), restoredCache.get("key2"));
+    assertEquals(Optional.of("value3"), restoredCache.get("key3"));
+  }
+
+  @Test
+  public void restoreWithoutSnapshotFileRestoresNothing() {
+    CacheSnapshotter cut = new CacheSnapshotter(createOffHeapCache(),
+        tempDir.resolve("missing.snapshot"));
+
+    assertEquals(0, cut.restore());
+  }
+
+  @Test
+  public void restoreOfTruncatedSnapshotKeepsEntriesReadSoFar() throws Exception {
+    Path file = tempDir.resolve("sessions.snapshot");
+    OffHeapCache cache = createOffHeapCache();
+    cache.set("key1", "value1");
+    new CacheSnapshotter(cache, file, currentTimeMillis::get).snapshot();
+    byte[] content = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(content, content.length - 1));
+
+    OffHeapCache restoredCache = createOffHeapCache();
+
+    assertEquals(1, new CacheSnapshotter(restoredCache, file, currentTimeMillis::get).restore());
+    assertEquals(Optional.of("value1"), restoredCache.get("key1"));
+  }
+
+  private OffHeapCache createOffHeapCache() {
+    return new OffHeapCache(600, 100, OffHeapCache.DEFAULT_MAX_KEY_BYTES,
+        OffHeapCache.DEFAULT_MAX_VALUE_BYTES, currentTimeMillis::get);
+  }
+
+  private void advanceSeconds(long seconds) {
+    currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(seconds));
+  }
+}
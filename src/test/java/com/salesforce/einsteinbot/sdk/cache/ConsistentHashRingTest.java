@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ConsistentHashRing
+ */
+public class ConsistentHashRingTest {
+
+  private static final int KEY_COUNT = 10_000;
+
+  private static Map<String, String> nodes(String... names) {
+    Map<String, String> nodes = new LinkedHashMap<>();
+    for (String name : names) {
+      nodes.put(name, name);
+    }
+    return nodes;
+  }
+
+  @Test
+  public void keysAreSpreadAcrossNodesRegardlessOfOrder() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c"));
+    ConsistentHashRing<String> reordered = new ConsistentHashRing<>(nodes("c", "a", "b"));
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      String key = "chatbot-key-" + i;
+      assertEquals(ring.get(key), reordered.get(key));
+      counts.merge(ring.get(key), 1, Integer::sum);
+    }
+
+    assertEquals(3, counts.size());
+    counts.values().forEach(count -> assertTrue(count > KEY_COUNT / 5, "count " + count));
+  }
+
+  @Test
+  public void addingNodeOnlyMovesKeysToNewNode() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c"));
+    ConsistentHashRing<String> grown = new ConsistentHashRing<>(nodes("a", "b", "c", "d"));
+
+    int moved = 0;
+    for (int i = 0; i < KEY_COUNT; i++) {
+      String key = "chatbot-key-" + i;
+      if (!ring.get(key).equals(grown.get(key))) {
+        assertEquals("d", grown.get(key));
+        moved++;
+      }
+    }
+
+    assertTrue(moved < KEY_COUNT / 3, "moved " + moved);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for InMemoryCache
+ */
+public class InMemoryCacheTest {
+
+  private final String key = "key";
+  private final String value = "value";
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  public void setWithTtlExpiresAfterTtlEvenIfAccessed() {
+    InMemoryCache cut = new InMemoryCache(600, 100, nanoTime::get);
+    cut.set(key, value, 10);
+
+    advanceSeconds(9);
+    assertEquals(Optional.of(value), cut.get(key));
+
+    advanceSeconds(1);
+    assertEquals(Optional.empty(), cut.get(key));
+  }
+
+  @Test
+  public void setWithoutTtlExpiresAfterNotBeingAccessed() {
+    InMemoryCache cut = new InMemoryCache(10, 100, nanoTime::get);
+    cut.set(key, value);
+
+    advanceSeconds(9);
+    assertEquals(Optional.of(value), cut.get(key));
+    advanceSeconds(9);
+    assertEquals(Optional.of(value), cut.get(key));
+
+    advanceSeconds(10);
+    assertEquals(Optional.empty(), cut.get(key));
+  }
+
+  @Test
+  public void setIfAbsentHonorsTtl() {
+    InMemoryCache cut = new InMemoryCache(600, 100, nanoTime::get);
+
+    assertTrue(cut.setIfAbsent(key, value, 10));
+    assertFalse(cut.setIfAbsent(key, value, 10));
+
+    advanceSeconds(10);
+    assertTrue(cut.setIfAbsent(key, value, 10));
+  }
+
+  @Test
+  public void sizeIsBoundedAndStatsAreRecorded() {
+    InMemoryCache cut = new InMemoryCache(600, 10);
+    IntStream.range(0, 100).forEach(i -> cut.set(key + i, value));
+    cut.get(key + 99);
+    cut.get("missingKey");
+    cut.cleanUp();
+
+    assertEquals(10, cut.estimatedSize());
+    CacheStats stats = cut.getStats();
+    assertEquals(90, stats.evictionCount());
+    assertEquals(1, stats.missCount());
+  }
+
+  private void advanceSeconds(long seconds) {
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+  }
+}
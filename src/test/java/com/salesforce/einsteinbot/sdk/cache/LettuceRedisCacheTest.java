@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.BooleanOutput;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests for LettuceRedisCache
+ */
+@ExtendWith(MockitoExtension.class)
+public class LettuceRedisCacheTest {
+
+  private final long ttl = 5L;
+  private final String key = "key";
+  private final String value = "value";
+
+  @Mock
+  private StatefulRedisConnection<String, String> connection;
+
+  @Mock
+  private RedisCommands<String, String> commands;
+
+  @Mock
+  private RedisAsyncCommands<String, String> asyncCommands;
+
+  @Mock
+  private RedisReactiveCommands<String, String> reactiveCommands;
+
+  @Test
+  public void set() {
+    when(connection.sync()).thenReturn(commands);
+
+    new LettuceRedisCache(ttl, connection).set(key, value);
+
+    verify(commands).setex(key, ttl, value);
+  }
+
+  @Test
+  public void get_cacheHit() {
+    when(connection.sync()).thenReturn(commands);
+    when(commands.get(key)).thenReturn(value);
+
+    assertEquals(Optional.of(value), new LettuceRedisCache(ttl, connection).get(key));
+  }
+
+  @Test
+  public void setIfAbsent() {
+    when(connection.sync()).thenReturn(commands);
+    when(commands.set(eq(key), eq(value), any(SetArgs.class))).thenReturn("OK");
+
+    assertTrue(new LettuceRedisCache(ttl, connection).setIfAbsent(key, value, 10L));
+  }
+
+  @Test
+  public void getAll() {
+    when(connection.sync()).thenReturn(commands);
+    when(commands.mget("key1", "key2"))
+        .thenReturn(List.of(KeyValue.just("key1", "value1"), KeyValue.empty("key2")));
+
+    assertEquals(Map.of("key1", "value1"),
+        new LettuceRedisCache(ttl, connection).getAll(List.of("key1", "key2")));
+  }
+
+  @Test
+  public void refreshTtlThrowsWhenRepliesTimeOut() {
+    when(connection.async()).thenReturn(asyncCommands);
+    when(connection.getTimeout()).thenReturn(Duration.ofMillis(10));
+    when(asyncCommands.expire(key, ttl)).thenReturn(new AsyncCommand<>(
+        new Command<>(CommandType.EXPIRE, new BooleanOutput<>(StringCodec.UTF8))));
+
+    assertThrows(RedisCommandTimeoutException.class,
+        () -> new LettuceRedisCache(ttl, connection).refreshTtl(List.of(key)));
+  }
+
+  @Test
+  public void reactiveGetAndSet() {
+    when(connection.reactive()).thenReturn(reactiveCommands);
+    when(reactiveCommands.get(key)).thenReturn(Mono.just(value));
+    when(reactiveCommands.setex(key, ttl, value)).thenReturn(Mono.just("OK"));
+    when(reactiveCommands.mget("key1", "key2"))
+        .thenReturn(Flux.just(KeyValue.just("key1", "value1"), KeyValue.empty("key2")));
+
+    ReactiveCache cut = new LettuceRedisCache(ttl, connection).reactive();
+
+    StepVerifier.create(cut.get(key))
+        .expectNext(value)
+        .verifyComplete();
+    StepVerifier.create(cut.set(key, value))
+        .verifyComplete();
+    StepVerifier.create(cut.getAll(List.of("key1", "key2")))
+        .expectNext(Map.of("key1", "value1"))
+        .verifyComplete();
+  }
+}
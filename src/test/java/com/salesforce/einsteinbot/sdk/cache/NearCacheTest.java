@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for NearCache
+ */
+public class NearCacheTest {
+
+  private final String key = "key";
+  private final String value = "value";
+
+  private Cache sharedCache;
+  private InvalidationChannel invalidationChannel;
+
+  @BeforeEach
+  public void setup() {
+    sharedCache = spy(new InMemoryCache(600));
+    invalidationChannel = new InProcessInvalidationChannel();
+  }
+
+  @Test
+  public void getIsServedFromProcessMemory() {
+    sharedCache.set(key, value);
+    NearCache cut = createNearCache();
+
+    assertEquals(Optional.of(value), cut.get(key));
+    assertEquals(Optional.of(value), cut.get(key));
+
+    verify(sharedCache, times(1)).get(key);
+  }
+
+  @Test
+  public void removeOnOneInstanceEvictsEntryOnOthers() {
+    NearCache instance1 = createNearCache();
+    NearCache instance2 = createNearCache();
+    instance1.set(key, value);
+    assertEquals(Optional.of(value), instance2.get(key));
+
+    instance1.remove(key);
+
+    assertEquals(Optional.empty(), instance2.get(key));
+  }
+
+  @Test
+  public void setOnOneInstanceEvictsStaleEntryOnOthers() {
+    NearCache instance1 = createNearCache();
+    NearCache instance2 = createNearCache();
+    instance1.set(key, value);
+    assertEquals(Optional.of(value), instance2.get(key));
+
+    instance1.set(key, "newValue");
+
+    assertEquals(Optional.of("newValue"), instance2.get(key));
+    // entry set on this instance is not evicted by its own message.
+    assertEquals(Optional.of("newValue"), instance1.get(key));
+    // only the instance holding the evicted entry looks it up again.
+    verify(sharedCache, times(2)).get(key);
+  }
+
+  @Test
+  public void getAllLooksUpOnlyMissingKeysInSharedCache() {
+    sharedCache.set("key1", "value1");
+    sharedCache.set("key2", "value2");
+    NearCache cut = createNearCache();
+    cut.get("key1");
+
+    assertEquals(Map.of("key1", "value1", "key2", "value2"),
+        cut.getAll(List.of("key1", "key2", "key3")));
+
+    verify(sharedCache).getAll(List.of("key2", "key3"));
+  }
+
+  @Test
+  public void entryInvalidatedWhileReadIsNotKeptInProcessMemory() {
+    sharedCache.set(key, value);
+    NearCache instance1 = createNearCache();
+    Cache racingSharedCache = mock(Cache.class, delegatesTo(sharedCache));
+    NearCache instance2 = new NearCache(racingSharedCache, invalidationChannel, 100,
+        Duration.ofMinutes(1));
+    doAnswer(invocation -> {
+      Optional<String> staleValue = sharedCache.get(key);
+      // another instance changes the entry after it was read from shared Cache.
+      instance1.set(key, "newValue");
+      return staleValue;
+    }).doAnswer(invocation -> sharedCache.get(key)).when(racingSharedCache).get(key);
+
+    assertEquals(Optional.of(value), instance2.get(key));
+
+    assertEquals(Optional.of("newValue"), instance2.get(key));
+  }
+
+  @Test
+  public void entryInvalidatedWhileWrittenIsNotKeptInProcessMemory() {
+    NearCache instance1 = createNearCache();
+    Cache racingSharedCache = mock(Cache.class, delegatesTo(sharedCache));
+    NearCache instance2 = new NearCache(racingSharedCache, invalidationChannel, 100,
+        Duration.ofMinutes(1));
+    doAnswer(invocation -> {
+      sharedCache.set(key, value);
+      // another instance changes the entry right after it was written to shared Cache.
+      instance1.set(key, "newValue");
+      return null;
+    }).when(racingSharedCache).set(key, value);
+
+    instance2.set(key, value);
+
+    assertEquals(Optional.of("newValue"), instance2.get(key));
+  }
+
+  @Test
+  public void closeUnsubscribesFromInvalidationChannel() {
+    InProcessInvalidationChannel channel = new InProcessInvalidationChannel();
+    NearCache cut = new NearCache(sharedCache, channel, 100, Duration.ofMinutes(1));
+    assertEquals(1, channel.listeners.size());
+
+    cut.close();
+
+    assertEquals(0, channel.listeners.size());
+  }
+
+  @Test
+  public void entryExpiresFromProcessMemoryAfterItsTtlWhenShorter() {
+    AtomicLong nanoTime = new AtomicLong();
+    NearCache cut = new NearCache(sharedCache, invalidationChannel, 100, Duration.ofMinutes(1),
+        nanoTime::get);
+    cut.set(key, value, 10);
+    assertEquals(Optional.of(value), cut.get(key));
+    verify(sharedCache, never()).get(key);
+
+    nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+
+    cut.get(key);
+    verify(sharedCache).get(key);
+  }
+
+  private NearCache createNearCache() {
+    return new NearCache(sharedCache, invalidationChannel, 100, Duration.ofMinutes(1));
+  }
+
+  private static class InProcessInvalidationChannel implements InvalidationChannel {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String message) {
+      listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+      listeners.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(Consumer<String> listener) {
+      listeners.remove(listener);
+    }
+  }
+}
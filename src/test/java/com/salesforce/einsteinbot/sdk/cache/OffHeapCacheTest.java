@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for OffHeapCache
+ */
+public class OffHeapCacheTest {
+
+  private final String key = "chatbot-00Dxx0000000000-0Xxxx0000000000-key";
+  private final String value = UUID.randomUUID().toString();
+  private final AtomicLong currentTimeMillis = new AtomicLong();
+
+  @Test
+  public void setGetAndRemove() {
+    OffHeapCache cut = new OffHeapCache(600, 100);
+
+    assertEquals(Optional.empty(), cut.get(key));
+    cut.set(key, value);
+    assertEquals(Optional.of(value), cut.get(key));
+    cut.set(key, "newValue");
+    assertEquals(Optional.of("newValue"), cut.get(key));
+
+    cut.remove(key);
+    assertEquals(Optional.empty(), cut.get(key));
+  }
+
+  @Test
+  public void entriesExpireAfterTtl() {
+    OffHeapCache cut = createCache(10, 100);
+    cut.set(key, value);
+    cut.set("otherKey", value, 20);
+
+    advanceSeconds(9);
+    assertEquals(Optional.of(value), cut.get(key));
+
+    advanceSeconds(1);
+    assertEquals(Optional.empty(), cut.get(key));
+    assertEquals(Optional.of(value), cut.get("otherKey"));
+  }
+
+  @Test
+  public void setIfAbsentHonorsTtl() {
+    OffHeapCache cut = createCache(600, 100);
+
+    assertTrue(cut.setIfAbsent(key, value, 10));
+    assertFalse(cut.setIfAbsent(key, value, 10));
+
+    advanceSeconds(10);
+    assertTrue(cut.setIfAbsent(key, value, 10));
+  }
+
+  @Test
+  public void keepsEntriesUpToCapacity() {
+    OffHeapCache cut = new OffHeapCache(600, 20_000);
+    IntStream.range(0, 10_000).forEach(i -> cut.set(key + i, value + i));
+
+    IntStream.range(0, 10_000)
+        .forEach(i -> assertEquals(Optional.of(value + i), cut.get(key + i)));
+  }
+
+  @Test
+  public void replacesEntryClosestToExpiryWhenFull() {
+    OffHeapCache cut = createCache(600, 1);
+    cut.set(key, value, 10);
+    cut.set("otherKey", value, 20);
+
+    assertEquals(Optional.empty(), cut.get(key));
+    assertEquals(Optional.of(value), cut.get("otherKey"));
+    assertEquals(1, cut.getEvictionCount());
+    assertEquals(1, cut.getHitCount());
+    assertEquals(1, cut.getMissCount());
+  }
+
+  @Test
+  public void keepsEntriesWhenSegmentsAreRehashed() {
+    OffHeapCache cut = new OffHeapCache(600, 20_000);
+    IntStream.range(0, 10_000).forEach(i -> cut.set(key + i, value + i));
+    IntStream.range(0, 10_000).filter(i -> i % 2 == 0).forEach(i -> cut.remove(key + i));
+
+    // removed slots are emptied by rehashing segments, instead of piling up.
+    IntStream.range(0, 100_000).forEach(i -> {
+      cut.set("otherKey" + i, value);
+      cut.remove("otherKey" + i);
+    });
+
+    IntStream.range(0, 10_000).forEach(i -> assertEquals(
+        i % 2 == 0 ? Optional.empty() : Optional.of(value + i), cut.get(key + i)));
+    assertEquals(0, cut.getEvictionCount());
+  }
+
+  @Test
+  public void rejectsEntriesLongerThanSlot() {
+    OffHeapCache cut = new OffHeapCache(600, 100, 8, 8);
+
+    assertThrows(IllegalArgumentException.class, () -> cut.set("longerThan8Bytes", value));
+    assertThrows(IllegalArgumentException.class, () -> cut.set("key", "longerThan8Bytes"));
+  }
+
+  private OffHeapCache createCache(long ttlSeconds, int capacity) {
+    return new OffHeapCache(ttlSeconds, capacity, OffHeapCache.DEFAULT_MAX_KEY_BYTES,
+        OffHeapCache.DEFAULT_MAX_VALUE_BYTES, currentTimeMillis::get);
+  }
+
+  private void advanceSeconds(long seconds) {
+    currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(seconds));
+  }
+}
@@ -8,18 +8,41 @@
 package com.salesforce.einsteinbot.sdk.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 /**
  * Unit tests for RedisCache
@@ -39,7 +62,8 @@ public class RedisCacheTest {
 
   @BeforeEach
   public void setup() {
-    when(jedisPool.getResource()).thenReturn(jedis);
+    // not used by cluster tests.
+    lenient().when(jedisPool.getResource()).thenReturn(jedis);
   }
 
   @Test
@@ -109,4 +133,198 @@ public class RedisCacheTest {
 
     verify(jedis).del(key);
   }
+
+  @Test
+  public void setIfAbsent() {
+    long ttl = 5L;
+    String key = "key";
+    String value = "value";
+
+    // redis replies OK only when key was not present.
+    when(jedis.set(eq(key), eq(value), any(SetParams.class))).thenReturn("OK").thenReturn(null);
+
+    RedisCache cut = new RedisCache(ttl, redisUrl);
+    cut.setJedisPool(jedisPool);
+
+    assertTrue(cut.setIfAbsent(key, value, 10L));
+    assertFalse(cut.setIfAbsent(key, value, 10L));
+  }
+
+  @Test
+  public void getAll() {
+    long ttl = 5L;
+
+    when(jedis.mget("key1", "key2")).thenReturn(Arrays.asList("value1", null));
+
+    RedisCache cut = new RedisCache(ttl, redisUrl);
+    cut.setJedisPool(jedisPool);
+
+    assertEquals(Map.of("key1", "value1"), cut.getAll(List.of("key1", "key2")));
+  }
+
+  @Test
+  public void setAll() {
+    long ttl = 5L;
+    Pipeline pipeline = mock(Pipeline.class);
+    when(jedis.pipelined()).thenReturn(pipeline);
+
+    RedisCache cut = new RedisCache(ttl, redisUrl);
+    cut.setJedisPool(jedisPool);
+    cut.setAll(Map.of("key1", "value1", "key2", "value2"));
+
+    verify(pipeline).setex("key1", ttl, "value1");
+    verify(pipeline).setex("key2", ttl, "value2");
+    verify(pipeline).sync();
+  }
+
+  @Test
+  public void removeAll() {
+    long ttl = 5L;
+
+    RedisCache cut = new RedisCache(ttl, redisUrl);
+    cut.setJedisPool(jedisPool);
+    cut.removeAll(List.of("key1", "key2"));
+
+    verify(jedis).del("key1", "key2");
+  }
+
+  @Test
+  public void refreshTtl() {
+    long ttl = 5L;
+    Pipeline pipeline = mock(Pipeline.class);
+    when(jedis.pipelined()).thenReturn(pipeline);
+
+    RedisCache cut = new RedisCache(ttl, redisUrl);
+    cut.setJedisPool(jedisPool);
+    cut.refreshTtl(List.of("key1", "key2"));
+
+    verify(pipeline).expire("key1", (int) ttl);
+    verify(pipeline).expire("key2", (int) ttl);
+    verify(pipeline).sync();
+  }
+
+  @Test
+  public void shardedGetAllUsesOneMgetPerShard() {
+    long ttl = 5L;
+    JedisPool otherPool = mock(JedisPool.class);
+    Jedis otherJedis = mock(Jedis.class);
+    when(otherPool.getResource()).thenReturn(otherJedis);
+    Map<String, RedisCache.Shard> shards = new LinkedHashMap<>();
+    shards.put("redis://redis-1:6379", new RedisCache.Shard(jedisPool, List.of()));
+    shards.put("redis://redis-2:6379", new RedisCache.Shard(otherPool, List.of()));
+    ConsistentHashRing<RedisCache.Shard> ring = new ConsistentHashRing<>(shards);
+
+    // find a key on each shard.
+    String key1 = "key0";
+    String key2 = "key1";
+    for (int i = 2; ring.get(key1) == ring.get(key2); i++) {
+      key2 = "key" + i;
+    }
+    Jedis jedis1 = ring.get(key1) == shards.get("redis://redis-1:6379") ? jedis : otherJedis;
+    Jedis jedis2 = jedis1 == jedis ? otherJedis : jedis;
+    when(jedis1.mget(key1)).thenReturn(List.of("value1"));
+    when(jedis2.mget(key2)).thenReturn(List.of("value2"));
+
+    RedisCache cut = new RedisCache(ttl, shards, false);
+
+    assertEquals(Map.of(key1, "value1", key2, "value2"), cut.getAll(List.of(key1, key2)));
+  }
+
+  @Test
+  public void getReadsFromReplicaWhenEnabled() {
+    long ttl = 5L;
+    String key = "key";
+    JedisPool primaryPool = mock(JedisPool.class);
+    Jedis primary = mock(Jedis.class);
+    when(primaryPool.getResource()).thenReturn(primary);
+    // jedisPool is the replica.
+    RedisCache cut = new RedisCache(ttl,
+        Map.of("redis://primary:6379", new RedisCache.Shard(primaryPool, List.of(jedisPool))),
+        true);
+    when(jedis.get(key)).thenReturn("value");
+
+    assertEquals(Optional.of("value"), cut.get(key));
+    cut.set(key, "value");
+
+    verify(primary, never()).get(key);
+    verify(primary).setex(key, ttl, "value");
+  }
+
+  @Test
+  public void clusterSendsSingleKeyCommandsThroughJedisCluster() {
+    long ttl = 5L;
+    JedisCluster jedisCluster = mock(JedisCluster.class);
+    when(jedisCluster.get("key1")).thenReturn("value1");
+
+    RedisCache cut = new RedisCache(ttl, jedisCluster);
+    cut.set("key1", "value1");
+
+    assertEquals(Optional.of("value1"), cut.get("key1"));
+    verify(jedisCluster).setex("key1", ttl, "value1");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void clusterPipelinesCommandsPerNode() {
+    long ttl = 5L;
+    JedisCluster jedisCluster = mock(JedisCluster.class);
+    Pipeline pipeline = mock(Pipeline.class);
+    stubClusterNode(jedisCluster, pipeline);
+    Response<String> found = mock(Response.class);
+    Response<String> missing = mock(Response.class);
+    when(found.get()).thenReturn("value1");
+    when(pipeline.get("key1")).thenReturn(found);
+    when(pipeline.get("key2")).thenReturn(missing);
+    when(pipeline.expire(anyString(), eq((int) ttl))).thenReturn(mock(Response.class));
+
+    RedisCache cut = new RedisCache(ttl, jedisCluster);
+
+    assertEquals(Map.of("key1", "value1"), cut.getAll(List.of("key1", "key2")));
+    cut.refreshTtl(List.of("key1", "key2"));
+
+    verify(pipeline).expire("key1", (int) ttl);
+    verify(pipeline).expire("key2", (int) ttl);
+    verify(pipeline, times(2)).sync();
+    verify(jedisCluster, never()).get(anyString());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void clusterSendsRedirectedKeysThroughJedisCluster() {
+    long ttl = 5L;
+    JedisCluster jedisCluster = mock(JedisCluster.class);
+    Pipeline pipeline = mock(Pipeline.class);
+    stubClusterNode(jedisCluster, pipeline);
+    Response<String> moved = mock(Response.class);
+    when(moved.get()).thenThrow(new JedisMovedDataException("MOVED",
+        new HostAndPort("redis-2", 6379), JedisClusterCRC16.getSlot("key1")));
+    when(pipeline.get("key1")).thenReturn(moved);
+    when(jedisCluster.get("key1")).thenReturn("value1");
+
+    RedisCache cut = new RedisCache(ttl, jedisCluster);
+
+    assertEquals(Map.of("key1", "value1"), cut.getAll(List.of("key1")));
+  }
+
+  private void stubClusterNode(JedisCluster jedisCluster, Pipeline pipeline) {
+    Client client = mock(Client.class);
+    when(client.getHost()).thenReturn("redis-1");
+    when(client.getPort()).thenReturn(6379);
+    when(jedis.getClient()).thenReturn(client);
+    when(jedis.pipelined()).thenReturn(pipeline);
+    when(jedisCluster.getConnectionFromSlot(anyInt())).thenReturn(jedis);
+  }
+
+  @Test
+  public void builderRequiresEitherShardsOrCluster() {
+    assertThrows(IllegalArgumentException.class, () -> RedisCache.with().build());
+    assertThrows(IllegalArgumentException.class, () -> RedisCache.with()
+        .shard("redis://redis-1:6379")
+        .cluster("redis://redis-2:6379")
+        .build());
+    assertThrows(IllegalArgumentException.class, () -> RedisCache.with()
+        .cluster("redis://redis-1:6379")
+        .readFromReplicas(true)
+        .build());
+  }
 }
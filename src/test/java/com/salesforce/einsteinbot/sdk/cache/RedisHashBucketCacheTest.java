@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.ProtocolCommand;
+
+/**
+ * Unit tests for RedisHashBucketCache
+ */
+@ExtendWith(MockitoExtension.class)
+public class RedisHashBucketCacheTest {
+
+  private static final long TTL = 5L;
+  private static final long NOW_MILLIS = 1_000_000L;
+  private static final long NOW_SECONDS = NOW_MILLIS / 1000;
+
+  @Mock
+  private JedisPool jedisPool;
+
+  @Mock
+  private Jedis jedis;
+
+  @Mock
+  private Pipeline pipeline;
+
+  @BeforeEach
+  public void setup() {
+    when(jedisPool.getResource()).thenReturn(jedis);
+  }
+
+  private RedisHashBucketCache createCache(boolean fieldTtl) {
+    return new RedisHashBucketCache(TTL, jedisPool, 16, fieldTtl, () -> NOW_MILLIS);
+  }
+
+  @Test
+  public void setStoresExpiryInValueAndExpiresBucket() {
+    when(jedis.pipelined()).thenReturn(pipeline);
+    RedisHashBucketCache cut = createCache(false);
+    String bucketKey = cut.getBucketKey("key");
+
+    cut.set("key", "value");
+
+    assertTrue(bucketKey.startsWith("chatbot-bucket-"));
+    verify(pipeline).hset(bucketKey, "key", (NOW_SECONDS + TTL) + ":value");
+    verify(pipeline).expire(bucketKey, TTL);
+    verify(pipeline).sync();
+  }
+
+  @Test
+  public void getSkipsExpiredField() {
+    RedisHashBucketCache cut = createCache(false);
+    String bucketKey = cut.getBucketKey("key");
+    when(jedis.hget(bucketKey, "key")).thenReturn((NOW_SECONDS + 1) + ":value")
+        .thenReturn(NOW_SECONDS + ":value");
+
+    assertEquals(Optional.of("value"), cut.get("key"));
+    assertEquals(Optional.empty(), cut.get("key"));
+    // removing it here could remove a value set meanwhile.
+    verify(jedis, never()).hdel(anyString(), anyString());
+  }
+
+  @Test
+  public void getTreatsFieldWithoutNumericExpiryAsMiss() {
+    RedisHashBucketCache cut = createCache(false);
+    String bucketKey = cut.getBucketKey("key");
+    when(jedis.hget(bucketKey, "key")).thenReturn("runtime:value").thenReturn(":value");
+
+    assertEquals(Optional.empty(), cut.get("key"));
+    assertEquals(Optional.empty(), cut.get("key"));
+  }
+
+  @Test
+  public void everySixteenthWriteSweepsExpiredFieldsOfBucket() {
+    when(jedis.pipelined()).thenReturn(pipeline);
+    RedisHashBucketCache cut = createCache(false);
+    String bucketKey = cut.getBucketKey("key");
+
+    IntStream.range(0, 16).forEach(i -> cut.set("key", "value"));
+
+    verify(pipeline, times(1)).eval(anyString(), eq(List.of(bucketKey)),
+        eq(List.of(String.valueOf(NOW_SECONDS))));
+  }
+
+  @Test
+  public void refreshTtlRunsScript() {
+    RedisHashBucketCache cut = createCache(false);
+
+    cut.refreshTtl(List.of("key1", "key2"));
+
+    verify(jedis).eval(anyString(),
+        eq(List.of(cut.getBucketKey("key1"), cut.getBucketKey("key2"))),
+        eq(List.of(String.valueOf(NOW_SECONDS), String.valueOf(NOW_SECONDS + TTL),
+            String.valueOf(TTL), "key1", "key2")));
+    verify(jedis, never()).pipelined();
+  }
+
+  @Test
+  public void setWithFieldTtlExpiresField() {
+    when(jedis.pipelined()).thenReturn(pipeline);
+    RedisHashBucketCache cut = createCache(true);
+    String bucketKey = cut.getBucketKey("key");
+
+    cut.set("key", "value", 10L);
+
+    verify(pipeline).hset(bucketKey, "key", "value");
+    verify(pipeline).sendCommand(any(ProtocolCommand.class), eq(bucketKey), eq("10"),
+        eq("FIELDS"), eq("1"), eq("key"));
+    verify(pipeline).sync();
+  }
+
+  @Test
+  public void setIfAbsentRunsScript() {
+    RedisHashBucketCache cut = createCache(false);
+    String bucketKey = cut.getBucketKey("key");
+    when(jedis.eval(anyString(), eq(List.of(bucketKey)),
+        eq(List.of("key", (NOW_SECONDS + 10) + ":value", "10", String.valueOf(NOW_SECONDS)))))
+        .thenReturn(1L);
+
+    assertTrue(cut.setIfAbsent("key", "value", 10L));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void getAll() {
+    when(jedis.pipelined()).thenReturn(pipeline);
+    RedisHashBucketCache cut = createCache(true);
+    Response<String> found = mock(Response.class);
+    Response<String> missing = mock(Response.class);
+    when(found.get()).thenReturn("value1");
+    when(pipeline.hget(cut.getBucketKey("key1"), "key1")).thenReturn(found);
+    when(pipeline.hget(cut.getBucketKey("key2"), "key2")).thenReturn(missing);
+
+    assertEquals(Map.of("key1", "value1"), cut.getAll(List.of("key1", "key2")));
+    verify(pipeline).sync();
+  }
+}
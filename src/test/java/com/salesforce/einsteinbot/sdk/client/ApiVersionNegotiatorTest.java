@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.salesforce.einsteinbot.sdk.client.ApiVersionNegotiator.ApiVersionStatus;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner.StatusEnum;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for ApiVersionNegotiator
+ */
+public class ApiVersionNegotiatorTest {
+
+  private static final String CURRENT_API_VERSION = "5.3.0";
+
+  private final AtomicInteger versionsRequestCount = new AtomicInteger();
+  private final List<ApiVersionStatus> notifiedStatuses = new CopyOnWriteArrayList<>();
+  private final AtomicReference<SupportedVersions> versionsResponse = new AtomicReference<>();
+
+  private ApiVersionNegotiator negotiator;
+
+  @BeforeEach
+  public void setup() {
+    negotiator = new ApiVersionNegotiator(
+        () -> Mono.fromCallable(() -> {
+          versionsRequestCount.incrementAndGet();
+          return versionsResponse.get();
+        }),
+        CURRENT_API_VERSION,
+        Duration.ofHours(1),
+        (apiVersion, status) -> notifiedStatuses.add(status));
+  }
+
+  @Test
+  public void testSupportedVersionsAreCached() {
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.ACTIVE));
+
+    SupportedVersions versions = negotiator.getSupportedVersions();
+    negotiator.getSupportedVersions();
+    negotiator.getSupportedVersionsAsync().block();
+
+    assertEquals(1, versionsRequestCount.get());
+    assertTrue(negotiator.isApiVersionSupported(versions));
+    assertEquals(ApiVersionStatus.ACTIVE, negotiator.getCurrentApiVersionStatus());
+    assertTrue(notifiedStatuses.isEmpty());
+  }
+
+  @Test
+  public void testConcurrentLookupsShareOneFetch() {
+    CompletableFuture<SupportedVersions> versionsFuture = new CompletableFuture<>();
+    ApiVersionNegotiator negotiator = new ApiVersionNegotiator(
+        () -> {
+          versionsRequestCount.incrementAndGet();
+          return Mono.fromFuture(versionsFuture);
+        }, CURRENT_API_VERSION, Duration.ofHours(1), (apiVersion, status) -> {
+        });
+
+    CompletableFuture<SupportedVersions> first = negotiator.getSupportedVersionsAsync().toFuture();
+    CompletableFuture<SupportedVersions> second = negotiator.getSupportedVersionsAsync().toFuture();
+    SupportedVersions versions = buildVersions("5.3.0", StatusEnum.ACTIVE);
+    versionsFuture.complete(versions);
+
+    try {
+      assertEquals(versions, first.join());
+      assertEquals(versions, second.join());
+      assertEquals(1, versionsRequestCount.get());
+    } finally {
+      negotiator.stop();
+    }
+  }
+
+  @Test
+  public void testInvalidateFetchesVersionsAgain() {
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.ACTIVE));
+    negotiator.getSupportedVersions();
+
+    negotiator.invalidate();
+    versionsResponse.set(buildVersions("5.4.0", StatusEnum.ACTIVE));
+    SupportedVersions versions = negotiator.getSupportedVersions();
+
+    assertEquals(2, versionsRequestCount.get());
+    assertFalse(negotiator.isApiVersionSupported(versions));
+    assertEquals("5.4.0", negotiator.getLatestApiVersion(versions));
+  }
+
+  @Test
+  public void testListenerNotifiedWhenVersionIsDeprecatedOrUnsupported() {
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.DEPRECATED));
+    negotiator.getSupportedVersions();
+    assertEquals(ApiVersionStatus.DEPRECATED, negotiator.getCurrentApiVersionStatus());
+
+    negotiator.invalidate();
+    versionsResponse.set(buildVersions("5.4.0", StatusEnum.ACTIVE));
+    negotiator.getSupportedVersions();
+    assertEquals(ApiVersionStatus.UNSUPPORTED, negotiator.getCurrentApiVersionStatus());
+
+    assertEquals(List.of(ApiVersionStatus.DEPRECATED, ApiVersionStatus.UNSUPPORTED),
+        notifiedStatuses);
+  }
+
+  @Test
+  public void testStartFetchesVersionsInBackground() throws Exception {
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.DEPRECATED));
+
+    negotiator.start();
+    try {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (notifiedStatuses.isEmpty() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      negotiator.getSupportedVersions();
+      assertEquals(1, versionsRequestCount.get());
+    } finally {
+      negotiator.stop();
+    }
+  }
+
+  @Test
+  public void testBackgroundRefreshStartsOnFirstLookupAndEndsOnStop() throws Exception {
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.ACTIVE));
+    ApiVersionNegotiator negotiator = new ApiVersionNegotiator(
+        () -> Mono.fromCallable(() -> {
+          versionsRequestCount.incrementAndGet();
+          return versionsResponse.get();
+        }), CURRENT_API_VERSION, Duration.ofMillis(20), (apiVersion, status) -> {
+        });
+
+    Thread.sleep(100);
+    assertEquals(0, versionsRequestCount.get());
+
+    negotiator.getSupportedVersions();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (versionsRequestCount.get() < 3 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    negotiator.stop();
+    Thread.sleep(50);
+    int requestCount = versionsRequestCount.get();
+    Thread.sleep(100);
+
+    assertTrue(requestCount >= 3);
+    assertEquals(requestCount, versionsRequestCount.get());
+  }
+
+  @Test
+  public void testEmptyVersionsResponseIsNotCached() {
+    SupportedVersions emptyVersions = new SupportedVersions();
+    emptyVersions.setVersions(new ArrayList<>());
+    versionsResponse.set(emptyVersions);
+
+    Throwable exception = assertThrows(RuntimeException.class,
+        () -> negotiator.getSupportedVersions());
+
+    assertEquals("Versions response was incorrect", exception.getCause().getCause().getMessage());
+    versionsResponse.set(buildVersions("5.3.0", StatusEnum.ACTIVE));
+    assertTrue(negotiator.isApiVersionSupported(negotiator.getSupportedVersions()));
+  }
+
+  private SupportedVersions buildVersions(String versionNumber, StatusEnum status) {
+    List<SupportedVersionsVersionsInner> versions = new ArrayList<>();
+    SupportedVersionsVersionsInner version = new SupportedVersionsVersionsInner();
+    version.setVersionNumber(versionNumber);
+    version.setStatus(status);
+    versions.add(version);
+    SupportedVersions supportedVersions = new SupportedVersions();
+    supportedVersions.setVersions(versions);
+    return supportedVersions;
+  }
+}
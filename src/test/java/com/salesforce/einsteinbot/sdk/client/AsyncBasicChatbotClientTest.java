@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static com.salesforce.einsteinbot.sdk.client.model.BotResponseBuilder.fromResponseEnvelopeResponseEntity;
+import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildBotSendMessageRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.salesforce.einsteinbot.sdk.api.BotApi;
+import com.salesforce.einsteinbot.sdk.api.VersionsApi;
+import com.salesforce.einsteinbot.sdk.auth.AuthMechanism;
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders;
+import com.salesforce.einsteinbot.sdk.client.model.BotRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.exception.UnsupportedSDKException;
+import com.salesforce.einsteinbot.sdk.model.AnyRequestMessage;
+import com.salesforce.einsteinbot.sdk.model.ChatMessageEnvelope;
+import com.salesforce.einsteinbot.sdk.model.ChatMessageResponseEnvelope;
+import com.salesforce.einsteinbot.sdk.model.EndSessionReason;
+import com.salesforce.einsteinbot.sdk.model.ForceConfig;
+import com.salesforce.einsteinbot.sdk.model.InitMessageEnvelope;
+import com.salesforce.einsteinbot.sdk.model.ResponseEnvelope;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersions;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner;
+import com.salesforce.einsteinbot.sdk.model.SupportedVersionsVersionsInner.StatusEnum;
+import com.salesforce.einsteinbot.sdk.model.TextInitMessage;
+import com.salesforce.einsteinbot.sdk.model.TextMessage;
+import com.salesforce.einsteinbot.sdk.model.TextMessage.TypeEnum;
+import com.salesforce.einsteinbot.sdk.util.TestUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * AsyncBasicChatbotClientTest - Unit Tests for AsyncBasicChatbotClient
+ */
+@ExtendWith(MockitoExtension.class)
+public class AsyncBasicChatbotClientTest {
+
+  private final String authToken = "C2C TOKEN";
+  private final String orgId = "00DSB0000001ThY2AU";
+  private final String botId = "testBotId";
+  private final String forceConfigEndpoint = "testForceConfigEndpoint";
+  private final String sessionId = "testSessionId";
+  private final String externalSessionId = "testExternalSessionIdId";
+  private final String basePath = "http://runtime-api-na-west.stg.chatbots.sfdc.sh";
+  private final String requestId = "TestRequestId";
+  private final String messageText = "hello";
+  private final HttpStatus httpStatus = HttpStatus.OK;
+  private final EndSessionReason endSessionReason = EndSessionReason.USER_REQUEST;
+
+  private final RequestConfig config = RequestConfig
+      .with()
+      .botId(botId)
+      .orgId(orgId)
+      .forceConfigEndpoint(forceConfigEndpoint)
+      .build();
+
+  private final BotHttpHeaders httpHeaders = BotHttpHeaders.with()
+      .requestId("ResponseRequestId")
+      .build();
+
+  private final AnyRequestMessage message = new TextMessage()
+      .type(TypeEnum.TEXT)
+      .sequenceId(System.currentTimeMillis())
+      .text(messageText);
+
+  @Mock
+  private BotApi mockBotApi;
+
+  @Mock
+  private VersionsApi mockVersionsApi;
+
+  @Mock
+  private AuthMechanism mockAuthMechanism;
+
+  private AsyncBasicChatbotClient client;
+
+  @BeforeEach
+  public void setup() {
+    lenient().when(mockAuthMechanism.getToken()).thenReturn(authToken);
+    BasicChatbotClientImpl basicClient = (BasicChatbotClientImpl) ChatbotClients.basic()
+        .basePath(basePath)
+        .authMechanism(mockAuthMechanism)
+        .build();
+    basicClient.setBotApi(mockBotApi);
+    basicClient.setVersionsApi(mockVersionsApi);
+    client = new AsyncBasicChatbotClientImpl(basicClient);
+  }
+
+  @Test
+  public void testStartSessionDoesNotBlockCaller() throws Exception {
+    stubVersionsResponse("5.3.0");
+    ResponseEntity<ResponseEnvelope> responseEntity = TestUtils
+        .createResponseEntity(new ResponseEnvelope().sessionId(sessionId), httpHeaders,
+            httpStatus);
+    Sinks.One<ResponseEntity<ResponseEnvelope>> pendingResponse = Sinks.one();
+
+    when(mockBotApi.startSessionWithHttpInfo(eq(botId), eq(orgId),
+        eq(buildInitMessageEnvelope()), eq(requestId)))
+        .thenReturn(pendingResponse.asMono());
+
+    CompletableFuture<BotResponse> futureResponse = client
+        .startChatSession(config, new ExternalSessionId(externalSessionId),
+            buildBotSendMessageRequest(message, Optional.of(requestId)));
+
+    assertFalse(futureResponse.isDone());
+    pendingResponse.tryEmitValue(responseEntity);
+
+    assertEquals(fromResponseEnvelopeResponseEntity(responseEntity), futureResponse.get());
+  }
+
+  @Test
+  public void testStartSessionWithUnsupportedVersion() {
+    stubVersionsResponse("5.4.0");
+
+    CompletableFuture<BotResponse> futureResponse = client
+        .startChatSession(config, new ExternalSessionId(externalSessionId),
+            buildBotSendMessageRequest(message, Optional.of(requestId)));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, futureResponse::get);
+    assertTrue(exception.getCause() instanceof UnsupportedSDKException);
+  }
+
+  @Test
+  public void testSendMessage() throws Exception {
+    ResponseEntity<ChatMessageResponseEnvelope> responseEntity = TestUtils
+        .createResponseEntity(new ChatMessageResponseEnvelope(), httpHeaders, httpStatus);
+
+    when(mockBotApi.continueSessionWithHttpInfo(eq(sessionId), eq(orgId),
+        eq(new ChatMessageEnvelope().message(message)), eq(requestId), eq(null)))
+        .thenReturn(Mono.just(responseEntity));
+
+    BotResponse response = client.sendMessage(config, new RuntimeSessionId(sessionId),
+        buildBotSendMessageRequest(message, Optional.of(requestId))).get();
+
+    assertEquals(sessionId, response.getResponseEnvelope().getSessionId());
+    assertEquals(httpStatus.value(), response.getHttpStatusCode());
+  }
+
+  @Test
+  public void testEndSession() throws Exception {
+    ResponseEntity<ChatMessageResponseEnvelope> responseEntity = TestUtils
+        .createResponseEntity(new ChatMessageResponseEnvelope(), httpHeaders, httpStatus);
+
+    when(mockBotApi
+        .endSessionWithHttpInfo(eq(sessionId), eq(orgId), eq(endSessionReason), eq(requestId),
+            eq(null)))
+        .thenReturn(Mono.just(responseEntity));
+
+    BotEndSessionRequest endSessionRequest = BotRequest
+        .withEndSession(endSessionReason)
+        .requestId(requestId)
+        .build();
+
+    BotResponse response = client
+        .endChatSession(config, new RuntimeSessionId(sessionId), endSessionRequest).get();
+
+    assertEquals(sessionId, response.getResponseEnvelope().getSessionId());
+  }
+
+  private InitMessageEnvelope buildInitMessageEnvelope() {
+    return new InitMessageEnvelope()
+        .forceConfig(new ForceConfig().endpoint(forceConfigEndpoint))
+        .externalSessionKey(externalSessionId)
+        .message(new TextInitMessage().text(messageText))
+        .variables(Collections.emptyList())
+        .referrers(Collections.emptyList());
+  }
+
+  private void stubVersionsResponse(String versionNumber) {
+    List<SupportedVersionsVersionsInner> versions = new ArrayList<>();
+    SupportedVersionsVersionsInner version = new SupportedVersionsVersionsInner();
+    version.setVersionNumber(versionNumber);
+    version.setStatus(StatusEnum.ACTIVE);
+    versions.add(version);
+    SupportedVersions mockVersions = new SupportedVersions();
+    mockVersions.setVersions(versions);
+    when(mockVersionsApi.getAPIVersions()).thenReturn(Mono.fromCallable(() -> mockVersions));
+  }
+}
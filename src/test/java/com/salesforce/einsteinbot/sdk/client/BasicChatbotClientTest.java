@@ -14,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,6 +22,7 @@ import com.salesforce.einsteinbot.sdk.api.BotApi;
 import com.salesforce.einsteinbot.sdk.api.HealthApi;
 import com.salesforce.einsteinbot.sdk.api.VersionsApi;
 import com.salesforce.einsteinbot.sdk.auth.AuthMechanism;
+import com.salesforce.einsteinbot.sdk.client.ApiVersionNegotiator.ApiVersionStatus;
 import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
 import com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders;
 import com.salesforce.einsteinbot.sdk.client.model.BotRequest;
@@ -175,6 +177,24 @@ public class BasicChatbotClientTest {
     assertEquals(startSessionBotResponse, response);
   }
 
+  @Test
+  public void testStartSessionUsesCachedVersions() {
+    stubVersionsResponse("5.3.0");
+    ResponseEntity<ResponseEnvelope> responseEntity = TestUtils
+        .createResponseEntity(buildResponseEnvelope(), httpHeaders, httpStatus);
+
+    when(mockBotApi.startSessionWithHttpInfo(eq(botId), eq(orgId),
+        eq(buildInitMessageEnvelope()), eq(requestId)))
+        .thenReturn(createMonoApiResponse(responseEntity));
+
+    for (int i = 0; i < 3; i++) {
+      client.startChatSession(config, new ExternalSessionId(externalSessionId),
+          buildBotSendMessageRequest(message, Optional.of(requestId)));
+    }
+
+    verify(mockVersionsApi, times(1)).getAPIVersions();
+  }
+
   @Test
   public void testStartSessionWithUnsupportedVersion() {
     stubVersionsResponse("5.4.0");
@@ -371,6 +391,23 @@ public class BasicChatbotClientTest {
     assertEquals(1, client.getSupportedVersions().getVersions().size());
   }
 
+  @Test
+  public void testSetVersionsApiKeepsStatusListener() {
+    List<ApiVersionStatus> notifiedStatuses = new ArrayList<>();
+    BasicChatbotClient client = ChatbotClients.basic()
+        .basePath(basePath)
+        .authMechanism(mockAuthMechanism)
+        .apiVersionStatusListener((apiVersion, status) -> notifiedStatuses.add(status))
+        .build();
+    stubVersionsResponse("5.2.0");
+    ((BasicChatbotClientImpl) client).setVersionsApi(mockVersionsApi);
+
+    ((BasicChatbotClientImpl) client).apiVersionNegotiator.getSupportedVersions();
+    client.close();
+
+    assertEquals(List.of(ApiVersionStatus.UNSUPPORTED), notifiedStatuses);
+  }
+
   private void stubVersionsResponse(String versionNumber) {
     List<SupportedVersionsVersionsInner> versions = new ArrayList<>();
     SupportedVersionsVersionsInner version = new SupportedVersionsVersionsInner();
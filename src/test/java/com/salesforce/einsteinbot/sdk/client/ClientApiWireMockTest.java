@@ -8,11 +8,13 @@
 package com.salesforce.einsteinbot.sdk.client;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.delete;
 import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
@@ -31,6 +33,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.salesforce.einsteinbot.sdk.auth.AuthMechanism;
 import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
 import com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders;
 import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
@@ -49,6 +52,11 @@ import java.net.URI;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import net.javacrumbs.jsonunit.core.Option;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -152,6 +160,105 @@ public class ClientApiWireMockTest {
     verifyResponse(responseBodyFile, botResponse);
   }
 
+  @Test
+  void testBearerTokenResolvedPerRequest() {
+    String responseBodyFile = "sendMessageResponse.json";
+    stubSendMessageResponse(responseBodyFile);
+    AtomicInteger tokenCounter = new AtomicInteger();
+    AuthMechanism authMechanism = new AuthMechanism() {
+      @Override
+      public String getToken() {
+        return "TOKEN" + tokenCounter.incrementAndGet();
+      }
+
+      @Override
+      public String getAuthorizationHeader() {
+        return "Bearer " + getToken();
+      }
+    };
+    BasicChatbotClient sharedClient = ChatbotClients.basic()
+        .basePath(wireMock.getBaseUri().toString())
+        .authMechanism(authMechanism)
+        .build();
+
+    int requestCount = 10;
+    IntStream.range(0, requestCount)
+        .mapToObj(i -> CompletableFuture.runAsync(() -> sharedClient
+            .sendMessage(requestConfig, runtimeSessionId, botSendMessageRequest)))
+        .collect(Collectors.toList())
+        .forEach(CompletableFuture::join);
+
+    assertEquals(requestCount, tokenCounter.get());
+    for (int i = 1; i <= requestCount; i++) {
+      wireMock.verify(1, postRequestedFor(urlEqualTo(SEND_MESSAGE_URI))
+          .withHeader(AUTHORIZATION_HEADER_KEY, equalTo("Bearer TOKEN" + i)));
+    }
+  }
+
+  @Test
+  void testUnauthorizedRequestRetriedOnceWithNewToken() {
+    stubSendMessageResponse("sendMessageResponse.json");
+    stubUnauthorizedSendMessageResponse("Bearer STALE_TOKEN");
+    AtomicReference<String> currentToken = new AtomicReference<>("STALE_TOKEN");
+    AtomicInteger invalidationCounter = new AtomicInteger();
+    AuthMechanism authMechanism = new AuthMechanism() {
+      @Override
+      public String getToken() {
+        return currentToken.get();
+      }
+
+      @Override
+      public void invalidateToken(String token) {
+        if (currentToken.compareAndSet(token, "FRESH_TOKEN")) {
+          invalidationCounter.incrementAndGet();
+        }
+      }
+
+      @Override
+      public String getAuthorizationHeader() {
+        return "Bearer " + getToken();
+      }
+    };
+    BasicChatbotClient sharedClient = ChatbotClients.basic()
+        .basePath(wireMock.getBaseUri().toString())
+        .authMechanism(authMechanism)
+        .build();
+
+    int requestCount = 5;
+    IntStream.range(0, requestCount)
+        .mapToObj(i -> CompletableFuture.runAsync(() -> sharedClient
+            .sendMessage(requestConfig, runtimeSessionId, botSendMessageRequest)))
+        .collect(Collectors.toList())
+        .forEach(CompletableFuture::join);
+
+    assertEquals(1, invalidationCounter.get());
+    wireMock.verify(requestCount, postRequestedFor(urlEqualTo(SEND_MESSAGE_URI))
+        .withHeader(AUTHORIZATION_HEADER_KEY, equalTo("Bearer FRESH_TOKEN")));
+  }
+
+  @Test
+  void testUnauthorizedRequestNotRetriedWithSameToken() {
+    stubUnauthorizedSendMessageResponse(new TestAuthMechanism().getAuthorizationHeader());
+
+    Throwable exceptionThrown = assertThrows(RuntimeException.class,
+        () -> client.sendMessage(requestConfig, runtimeSessionId, botSendMessageRequest));
+
+    ChatbotResponseException chatbotResponseException = validateAndGetCause(exceptionThrown,
+        ChatbotResponseException.class);
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), chatbotResponseException.getStatus());
+    wireMock.verify(1, postRequestedFor(urlEqualTo(SEND_MESSAGE_URI)));
+  }
+
+  @Test
+  void testStatusRequestWithoutBearerToken() {
+    stubStatusResponse("statusResponse.json");
+
+    client.getHealthStatus();
+
+    wireMock.verify(getRequestedFor(urlEqualTo(STATUS_URI))
+        .withHeader(AUTHORIZATION_HEADER_KEY, absent()));
+  }
+
   @Test
   void testStatus() throws Exception {
     String responseBodyFile = "statusResponse.json";
@@ -363,6 +470,19 @@ public class ClientApiWireMockTest {
     );
   }
 
+  private void stubUnauthorizedSendMessageResponse(String authorizationHeader) {
+    wireMock.stubFor(
+        post(SEND_MESSAGE_URI)
+            .withHeader(AUTHORIZATION_HEADER_KEY, equalTo(authorizationHeader))
+            .willReturn
+                (aResponse()
+                    .withStatus(HttpStatus.UNAUTHORIZED.value())
+                    .withHeader("Content-Type", "application/json;charset=UTF-8")
+                    .withHeader(HEADER_NAME_REQUEST_ID, responseRequestId)
+                    .withBodyFile(TEST_MOCK_DIR + "errorResponse.json"))
+    );
+  }
+
   private void stubEndSessionResponse(String responseBodyFile) {
     wireMock.stubFor(
         delete(END_SESSION_URI)
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static com.salesforce.einsteinbot.sdk.client.model.BotResponseBuilder.fromResponseEnvelopeResponseEntity;
+import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildBotSendMessageRequest;
+import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildSessionBotEndSessionRequest;
+import static com.salesforce.einsteinbot.sdk.client.util.RequestFactory.buildTextMessage;
+import static com.salesforce.einsteinbot.sdk.util.Constants.CONTEXT_VARIABLE_NAME_INTEGRATION_NAME;
+import static com.salesforce.einsteinbot.sdk.util.Constants.CONTEXT_VARIABLE_NAME_INTEGRATION_TYPE;
+import static com.salesforce.einsteinbot.sdk.util.Constants.CONTEXT_VARIABLE_VALUE_API;
+import static com.salesforce.einsteinbot.sdk.util.TestUtils.createResponseEntity;
+import static com.salesforce.einsteinbot.sdk.util.UtilFunctions.createTextVariable;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.salesforce.einsteinbot.sdk.cache.Cache;
+import com.salesforce.einsteinbot.sdk.cache.InMemoryCache;
+import com.salesforce.einsteinbot.sdk.cache.ReactiveCacheAdapter;
+import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
+import com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders;
+import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
+import com.salesforce.einsteinbot.sdk.client.model.BotSendMessageRequest;
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import com.salesforce.einsteinbot.sdk.client.model.RuntimeSessionId;
+import com.salesforce.einsteinbot.sdk.model.EndSessionReason;
+import com.salesforce.einsteinbot.sdk.model.ResponseEnvelope;
+import com.salesforce.einsteinbot.sdk.model.TextVariable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests for ReactiveSessionManagedChatbotClient
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveSessionManagedChatbotClientTest {
+
+  @Mock
+  private AsyncBasicChatbotClient basicChatbotClient;
+
+  @Captor
+  private ArgumentCaptor<BotSendMessageRequest> messageRequestCaptor;
+
+  @Captor
+  private ArgumentCaptor<RuntimeSessionId> runtimeSessionIdCaptor;
+
+  private final String integrationName = "integrationName";
+  private final String orgId = "00DSB0000001ThY2AU";
+  private final String botId = "botId";
+  private final String externalSessionKey = "session1";
+  private final String chatbotSessionId = "chatbotSessionId";
+  private final String cacheKey = String
+      .format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+  private final ExternalSessionId externalSessionId = new ExternalSessionId(externalSessionKey);
+  private final EndSessionReason endSessionReason = EndSessionReason.USER_REQUEST;
+
+  private InMemoryCache cache;
+  private BotResponse response;
+  private RequestConfig requestConfig;
+  private ReactiveSessionManagedChatbotClient client;
+
+  @BeforeEach
+  public void setup() {
+    response = fromResponseEnvelopeResponseEntity(createResponseEntity(new ResponseEnvelope()
+        .sessionId(chatbotSessionId), BotHttpHeaders.with().build(), HttpStatus.OK));
+
+    requestConfig = RequestConfig
+        .with()
+        .botId(botId)
+        .orgId(orgId)
+        .forceConfigEndpoint("testForceConfig")
+        .build();
+
+    cache = new InMemoryCache(600);
+    client = ChatbotClients.reactiveSessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(new ReactiveCacheAdapter(cache, Schedulers.immediate()))
+        .integrationName(integrationName)
+        .build();
+  }
+
+  @Test
+  public void testSendMessageWithoutSessionIdInCache() {
+    when(basicChatbotClient.startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), messageRequestCaptor.capture()))
+        .thenReturn(CompletableFuture.completedFuture(response));
+
+    StepVerifier.create(client.sendMessage(requestConfig, externalSessionId, buildRequest()))
+        .expectNext(response)
+        .verifyComplete();
+
+    TextVariable integrationType = createTextVariable(CONTEXT_VARIABLE_NAME_INTEGRATION_TYPE,
+        CONTEXT_VARIABLE_VALUE_API);
+    TextVariable integrationNameVar = createTextVariable(CONTEXT_VARIABLE_NAME_INTEGRATION_NAME,
+        integrationName);
+    assertThat(messageRequestCaptor.getValue().getVariables(),
+        contains(integrationType, integrationNameVar));
+    assertEquals(Optional.of(chatbotSessionId),
+        cache.get(cacheKey).map(SessionRecord::decode).map(SessionRecord::getSessionId));
+  }
+
+  @Test
+  public void testSendMessageWithSessionIdInCache() {
+    cache.set(cacheKey, chatbotSessionId);
+    when(basicChatbotClient.sendMessage(any(RequestConfig.class), runtimeSessionIdCaptor.capture(),
+        any(BotSendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(response));
+
+    StepVerifier.create(client.sendMessage(requestConfig, externalSessionId, buildRequest()))
+        .expectNext(response)
+        .verifyComplete();
+
+    assertEquals(new RuntimeSessionId(chatbotSessionId), runtimeSessionIdCaptor.getValue());
+  }
+
+  @Test
+  public void testSendMessageWithCurrentSessionInCacheOnlyRefreshesTtlInBatches() {
+    Cache sharedCache = spy(new InMemoryCache(600));
+    sharedCache.set(cacheKey, new SessionRecord(chatbotSessionId, System.currentTimeMillis(),
+        Optional.empty()).encode());
+    clearInvocations(sharedCache);
+    when(basicChatbotClient.sendMessage(any(RequestConfig.class), any(RuntimeSessionId.class),
+        any(BotSendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(response));
+    ReactiveSessionManagedChatbotClient batchingClient = ChatbotClients.reactiveSessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(new ReactiveCacheAdapter(sharedCache, Schedulers.immediate()))
+        .ttlRefreshInterval(Duration.ofHours(1))
+        .build();
+
+    StepVerifier.create(batchingClient.sendMessage(requestConfig, externalSessionId,
+            buildRequest()))
+        .expectNext(response)
+        .verifyComplete();
+    verify(sharedCache, never()).set(anyString(), anyString());
+    verify(sharedCache, never()).refreshTtl(anyCollection());
+
+    batchingClient.close();
+    verify(sharedCache).refreshTtl(List.of(cacheKey));
+  }
+
+  @Test
+  public void testEndChatWithoutSessionIdInCache() {
+    StepVerifier.create(client.endChatSession(requestConfig, externalSessionId, buildEndRequest()))
+        .expectErrorSatisfies(error -> {
+          assertTrue(error instanceof IllegalStateException);
+          assertTrue(error.getMessage().contains("No session found"));
+        })
+        .verify();
+
+    verifyNoInteractions(basicChatbotClient);
+  }
+
+  @Test
+  public void testEndChatWithSessionIdInCache() {
+    cache.set(cacheKey, chatbotSessionId);
+    when(basicChatbotClient.endChatSession(any(RequestConfig.class),
+        runtimeSessionIdCaptor.capture(), any(BotEndSessionRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(response));
+
+    StepVerifier.create(client.endChatSession(requestConfig, externalSessionId, buildEndRequest()))
+        .expectNext(response)
+        .verifyComplete();
+
+    assertEquals(new RuntimeSessionId(chatbotSessionId), runtimeSessionIdCaptor.getValue());
+    assertFalse(cache.get(cacheKey).isPresent());
+  }
+
+  @Test
+  public void testNothingHappensUntilSubscribed() {
+    client.sendMessage(requestConfig, externalSessionId, buildRequest());
+
+    verifyNoInteractions(basicChatbotClient);
+  }
+
+  private BotSendMessageRequest buildRequest() {
+    return buildBotSendMessageRequest(buildTextMessage("hello"), Optional.empty());
+  }
+
+  private BotEndSessionRequest buildEndRequest() {
+    return buildSessionBotEndSessionRequest(endSessionReason, Optional.empty());
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import com.salesforce.einsteinbot.sdk.client.model.RequestConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the CPU work and allocations done to look up a session in Cache, i.e. building
+ * cache key and decoding cached session. Cache calls are not included.
+ * <p>
+ * {@link #lookupWithFormattedKey()} builds key with String.format and decodes a plain session
+ * record, as it was done before cache key prefixes and compact records.
+ * {@link #lookupWithKeyPrefix()} does it as SessionManagedChatbotClientImpl does now.
+ * <p>
+ * Run using main method, for eg. from IDE after test-compile. It prints bytes of key and value
+ * stored per session, and allocations per lookup are reported as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SessionCacheBenchmark {
+
+  private static final String ORG_ID = "00DRM0000006k892AA";
+  private static final String BOT_ID = "0XxRM0000004Cb50AE";
+  private static final String EXTERNAL_SESSION_ID = "5c3f8a1e-7c1d-4b2a-9f0e-3d6b2a8c4e11";
+  private static final String SESSION_ID = "6e0c2f2b-6a3e-4f4e-9c2a-0b8e6d4f1a7c";
+  private static final long SEQUENCE_ID = 1700000000000L;
+  private static final String RUNTIME_CRC = "1876544923";
+
+  private final RequestConfig config = RequestConfig
+      .with(BOT_ID, ORG_ID, "https://esw5.my.salesforce.com");
+  private final String plainRecord = plainRecord();
+  private final String compactRecord = compactRecord();
+
+  private static String formattedKey() {
+    return String.format("chatbot-%s-%s-%s", ORG_ID, BOT_ID, EXTERNAL_SESSION_ID);
+  }
+
+  private static String plainRecord() {
+    return SESSION_ID + ";" + SEQUENCE_ID + ";" + RUNTIME_CRC;
+  }
+
+  private static String compactRecord() {
+    return new SessionRecord(SESSION_ID, SEQUENCE_ID, Optional.of(RUNTIME_CRC)).encode();
+  }
+
+  @Benchmark
+  public SessionRecord lookupWithFormattedKey() {
+    formattedKey();
+    return SessionRecord.decode(plainRecord);
+  }
+
+  @Benchmark
+  public SessionRecord lookupWithKeyPrefix() {
+    SessionManagedChatbotClientImpl.getCacheKey(config, EXTERNAL_SESSION_ID);
+    return SessionRecord.decode(compactRecord);
+  }
+
+  private static int bytes(String key, String value) {
+    return key.getBytes(StandardCharsets.UTF_8).length
+        + value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String key = formattedKey();
+    System.out.printf("Bytes per session, key and value: plain %d, compact %d%n",
+        bytes(key, plainRecord()), bytes(key, compactRecord()));
+    new Runner(new OptionsBuilder()
+        .include(SessionCacheBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build())
+        .run();
+  }
+}
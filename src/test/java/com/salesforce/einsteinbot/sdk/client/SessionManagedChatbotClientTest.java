@@ -23,10 +23,19 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.salesforce.einsteinbot.sdk.cache.Cache;
+import com.salesforce.einsteinbot.sdk.cache.InMemoryCache;
 import com.salesforce.einsteinbot.sdk.client.model.BotEndSessionRequest;
 import com.salesforce.einsteinbot.sdk.client.model.BotHttpHeaders;
 import com.salesforce.einsteinbot.sdk.client.model.BotResponse;
@@ -38,7 +47,16 @@ import com.salesforce.einsteinbot.sdk.model.EndSessionReason;
 import com.salesforce.einsteinbot.sdk.model.ResponseEnvelope;
 import com.salesforce.einsteinbot.sdk.model.TextMessage;
 import com.salesforce.einsteinbot.sdk.model.TextVariable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -46,6 +64,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.http.HttpStatus;
 
 /**
@@ -143,7 +162,8 @@ public class SessionManagedChatbotClientTest {
 
     // verify cache is updated
     verify(cache)
-        .set(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey), chatbotSessionId);
+        .set(eq(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)),
+            argThat(value -> SessionRecord.decode(value).getSessionId().equals(chatbotSessionId)));
 
     TextVariable integrationType = createTextVariable(CONTEXT_VARIABLE_NAME_INTEGRATION_TYPE,
         CONTEXT_VARIABLE_VALUE_API);
@@ -157,7 +177,7 @@ public class SessionManagedChatbotClientTest {
   @Test
   public void testSendMessageWithSessionIdInCache() {
 
-    stubCacheToReturnEmptyOrExistingSession(Optional.of(chatbotSessionId));
+    stubCacheToReturnEmptyOrExistingSession(Optional.of(currentSessionRecord()));
     stubSendMessage();
 
     // call method being tested
@@ -172,9 +192,252 @@ public class SessionManagedChatbotClientTest {
     BotSendMessageRequest sentRequest = messageRequestCaptor.getValue();
     verifySentRequest(sentRequest, TextMessage.class);
 
-    // verify cache is updated
-    verify(cache)
-        .set(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey), chatbotSessionId);
+    // verify unchanged session id is not written again, only its TTL is refreshed in a batch
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+    verify(cache, never()).set(anyString(), anyString());
+    verify(cache, never()).refreshTtl(anyCollection());
+    sessionManagedClient.close();
+    verify(cache).refreshTtl(List.of(cacheKey));
+  }
+
+  @Test
+  public void testSendMessageRefreshesTtlInBatches() {
+
+    stubCacheToReturnEmptyOrExistingSession(Optional.of(currentSessionRecord()));
+    stubSendMessage();
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(cache)
+        .ttlRefreshInterval(Duration.ofHours(1))
+        .build();
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+    verify(cache, never()).refreshTtl(anyCollection());
+
+    client.close();
+    verify(cache).refreshTtl(
+        List.of(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)));
+  }
+
+  @Test
+  public void testSendMessageWithZeroTtlRefreshIntervalRefreshesTtlRightAway() {
+
+    stubCacheToReturnEmptyOrExistingSession(Optional.of(currentSessionRecord()));
+    stubSendMessage();
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(cache)
+        .ttlRefreshInterval(Duration.ZERO)
+        .build();
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+
+    verify(cache).refreshTtl(
+        List.of(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)));
+  }
+
+  @Test
+  public void testSendMessageWithStaleSequenceIdInCacheWritesSessionAgain() {
+
+    long staleSequenceId = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+    stubCacheToReturnEmptyOrExistingSession(Optional.of(
+        new SessionRecord(chatbotSessionId, staleSequenceId, Optional.empty()).encode()));
+    stubSendMessage();
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(cache)
+        .compactSessionRecords(true)
+        .build();
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+
+    verify(cache).set(eq(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)),
+        argThat(value -> SessionRecord.decode(value).getLastSequenceId() > staleSequenceId));
+    verify(cache, never()).refreshTtl(anyCollection());
+  }
+
+  @Test
+  public void testPlainSessionIdIsCachedByDefault() {
+
+    // looked up twice when starting session, then plain session id as cached by first message.
+    stubCacheToReturnEmptyOrExistingSession(Optional.empty())
+        .thenReturn(Optional.empty(), Optional.of(chatbotSessionId));
+    stubStartChatSession();
+    stubSendMessage();
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(cache)
+        .build();
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+
+    client.close();
+
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+    verify(cache, times(1)).set(cacheKey, chatbotSessionId);
+    verify(cache).refreshTtl(List.of(cacheKey));
+  }
+
+  @Test
+  public void testRuntimeCRCIsSentOnFollowingRequestsOfSession() {
+    BotResponse responseWithCRC = fromResponseEnvelopeResponseEntity(createResponseEntity(
+        new ResponseEnvelope().sessionId(chatbotSessionId),
+        BotHttpHeaders.with().runtimeCRC("runtimeCRC").build(), httpStatus));
+    when(basicChatbotClient.startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), any(BotSendMessageRequest.class)))
+        .thenReturn(responseWithCRC);
+    when(basicChatbotClient.sendMessage(any(RequestConfig.class), any(RuntimeSessionId.class),
+        messageRequestCaptor.capture()))
+        .thenReturn(responseWithCRC);
+    stubEndChat();
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(new InMemoryCache(600))
+        .compactSessionRecords(true)
+        .build();
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+    client.sendMessage(requestConfig, externalSessionId, buildBotSendMessageRequest(
+        buildTextMessage(messageText), Optional.empty()));
+    client.endChatSession(requestConfig, externalSessionId, botEndSessionRequest);
+
+    assertEquals(Optional.of("runtimeCRC"), messageRequestCaptor.getValue().getRuntimeCRC());
+    verify(basicChatbotClient).endChatSession(any(RequestConfig.class), eq(runtimeSessionId),
+        endSessionRequestCaptor.capture());
+    assertEquals(Optional.of("runtimeCRC"), endSessionRequestCaptor.getValue().getRuntimeCRC());
+  }
+
+  @Test
+  public void testConcurrentMessagesWithoutSessionStartOneSession() throws Exception {
+    CountDownLatch sessionStartCalled = new CountDownLatch(1);
+    CountDownLatch sessionStartDone = new CountDownLatch(1);
+    when(basicChatbotClient.startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), any(BotSendMessageRequest.class)))
+        .thenAnswer(invocation -> {
+          sessionStartCalled.countDown();
+          sessionStartDone.await(5, TimeUnit.SECONDS);
+          return response;
+        });
+    stubSendMessage();
+    Cache sharedCache = spy(new InMemoryCache(600));
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(sharedCache)
+        .build();
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<BotResponse> first = executor.submit(() -> client
+          .sendMessage(requestConfig, externalSessionId, botSendMessageRequest));
+      assertTrue(sessionStartCalled.await(5, TimeUnit.SECONDS));
+      Future<BotResponse> second = executor.submit(() -> client
+          .sendMessage(requestConfig, externalSessionId, botSendMessageRequest));
+      // first caller looked up the session twice. Once second caller missed it too, it joins the
+      // session start of first caller, which is pending until released.
+      verify(sharedCache, timeout(5000).times(3)).get(cacheKey);
+      sessionStartDone.countDown();
+
+      assertEquals(response, first.get(5, TimeUnit.SECONDS));
+      assertEquals(response, second.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(basicChatbotClient, times(1)).startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), any(BotSendMessageRequest.class));
+    verify(basicChatbotClient).sendMessage(any(RequestConfig.class), eq(runtimeSessionId),
+        any(BotSendMessageRequest.class));
+  }
+
+  @Test
+  public void testInterruptedWaitForSessionStartFailsFast() throws Exception {
+    CountDownLatch sessionStartCalled = new CountDownLatch(1);
+    CountDownLatch sessionStartDone = new CountDownLatch(1);
+    when(basicChatbotClient.startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), any(BotSendMessageRequest.class)))
+        .thenAnswer(invocation -> {
+          sessionStartCalled.countDown();
+          sessionStartDone.await(5, TimeUnit.SECONDS);
+          return response;
+        });
+    SessionManagedChatbotClient client = ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(new InMemoryCache(600))
+        .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try {
+      executor.submit(() -> client
+          .sendMessage(requestConfig, externalSessionId, botSendMessageRequest));
+      assertTrue(sessionStartCalled.await(5, TimeUnit.SECONDS));
+      Thread.currentThread().interrupt();
+
+      assertThrows(IllegalStateException.class,
+          () -> client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest));
+      // interrupt status is kept for the caller.
+      assertTrue(Thread.interrupted());
+    } finally {
+      sessionStartDone.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSessionStartLeaseIsReleasedAfterSessionStart() {
+    Cache sharedCache = spy(new InMemoryCache(600));
+    stubStartChatSession();
+    SessionManagedChatbotClient client = buildSessionStartLeaseClient(sharedCache);
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+    verify(sharedCache).setIfAbsent(eq("lease-" + cacheKey), anyString(), eq(5L));
+    assertEquals(Optional.of(chatbotSessionId),
+        sharedCache.get(cacheKey).map(SessionRecord::decode).map(SessionRecord::getSessionId));
+    assertEquals(Optional.empty(), sharedCache.get("lease-" + cacheKey));
+  }
+
+  @Test
+  public void testSessionStartLeaseHeldByAnotherInstanceWaitsForSession() {
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+    when(cache.get(cacheKey))
+        .thenReturn(Optional.empty(), Optional.empty(), Optional.of(chatbotSessionId));
+    when(cache.setIfAbsent(eq("lease-" + cacheKey), anyString(), eq(5L))).thenReturn(false);
+    stubSendMessage();
+    SessionManagedChatbotClient client = buildSessionStartLeaseClient(cache);
+
+    client.sendMessage(requestConfig, externalSessionId, botSendMessageRequest);
+
+    verify(basicChatbotClient, never()).startChatSession(any(RequestConfig.class),
+        any(ExternalSessionId.class), any(BotSendMessageRequest.class));
+    verify(basicChatbotClient).sendMessage(any(RequestConfig.class), eq(runtimeSessionId),
+        any(BotSendMessageRequest.class));
+  }
+
+  private SessionManagedChatbotClient buildSessionStartLeaseClient(Cache sharedCache) {
+    return ChatbotClients.sessionManaged()
+        .basicClient(basicChatbotClient)
+        .cache(sharedCache)
+        .sessionStartLease(Duration.ofSeconds(5))
+        .build();
+  }
+
+  @Test
+  public void testGetRuntimeSessionIdsInOneCacheLookup() {
+    ExternalSessionId sessionWithoutRuntimeSession = new ExternalSessionId("session2");
+    String cacheKey = String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey);
+    when(cache.getAll(Set.of(cacheKey,
+        String.format("chatbot-%s-%s-%s", orgId, botId, sessionWithoutRuntimeSession.getValue()))))
+        .thenReturn(Map.of(cacheKey, chatbotSessionId));
+
+    Map<ExternalSessionId, RuntimeSessionId> runtimeSessionIds = sessionManagedClient
+        .getRuntimeSessionIds(requestConfig, List.of(externalSessionId,
+            sessionWithoutRuntimeSession));
+
+    assertEquals(Map.of(externalSessionId, runtimeSessionId), runtimeSessionIds);
   }
 
   @Test
@@ -258,11 +521,17 @@ public class SessionManagedChatbotClientTest {
         .build());
   }
 
-  private void stubCacheToReturnEmptyOrExistingSession(Optional<String> chatbotSessionId) {
-    when(cache.get(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)))
+  private OngoingStubbing<Optional<String>> stubCacheToReturnEmptyOrExistingSession(
+      Optional<String> chatbotSessionId) {
+    return when(cache.get(String.format("chatbot-%s-%s-%s", orgId, botId, externalSessionKey)))
         .thenReturn(chatbotSessionId);
   }
 
+  private String currentSessionRecord() {
+    return new SessionRecord(chatbotSessionId, System.currentTimeMillis(), Optional.empty())
+        .encode();
+  }
+
   private <T> void verifySentRequest(BotSendMessageRequest sentRequest, Class<T> messageType) {
 
     assertTrue(messageType.isInstance(sentRequest.getMessage()),
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.salesforce.einsteinbot.sdk.client.model.ExternalSessionId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SessionOrderedExecutor
+ */
+public class SessionOrderedExecutorTest {
+
+  private final ExternalSessionId session1 = new ExternalSessionId("session1");
+  private final ExternalSessionId session2 = new ExternalSessionId("session2");
+
+  private ExecutorService threadPool;
+
+  @BeforeEach
+  public void setup() {
+    threadPool = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    threadPool.shutdownNow();
+  }
+
+  @Test
+  public void tasksOfSessionRunInSubmissionOrder() throws Exception {
+    SessionOrderedExecutor cut = new SessionOrderedExecutor(threadPool, 1000);
+    List<Integer> completed = new CopyOnWriteArrayList<>();
+
+    List<CompletableFuture<Integer>> results = IntStream.range(0, 200)
+        .mapToObj(i -> cut.submit(session1, () -> {
+          completed.add(i);
+          return i;
+        }))
+        .collect(Collectors.toList());
+    CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+    assertEquals(IntStream.range(0, 200).boxed().collect(Collectors.toList()), completed);
+  }
+
+  @Test
+  public void sessionsRunInParallel() throws Exception {
+    SessionOrderedExecutor cut = new SessionOrderedExecutor(threadPool, 10);
+    CountDownLatch session1Blocked = new CountDownLatch(1);
+    CompletableFuture<Boolean> session1Result = cut.submit(session1, () -> await(session1Blocked));
+
+    assertEquals("done", cut.submit(session2, () -> "done").get(5, TimeUnit.SECONDS));
+    assertFalse(session1Result.isDone());
+
+    session1Blocked.countDown();
+    assertTrue(session1Result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void tasksBeyondMaxQueueDepthAreRejected() throws Exception {
+    SessionOrderedExecutor cut = new SessionOrderedExecutor(threadPool, 1);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> first = cut.submit(session1, () -> {
+      running.countDown();
+      return await(release);
+    });
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+
+    CompletableFuture<String> queued = cut.submit(session1, () -> "queued");
+    CompletableFuture<String> rejected = cut.submit(session1, () -> "rejected");
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> rejected.get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof RejectedExecutionException);
+    release.countDown();
+    assertTrue(first.get(5, TimeUnit.SECONDS));
+    assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void failedTaskDoesNotStopNextTasks() throws Exception {
+    SessionOrderedExecutor cut = new SessionOrderedExecutor(threadPool, 10);
+
+    CompletableFuture<String> failed = cut.submit(session1, () -> {
+      throw new IllegalStateException("failed");
+    });
+    CompletableFuture<String> next = cut.submit(session1, () -> "next");
+
+    assertEquals("next", next.get(5, TimeUnit.SECONDS));
+    assertTrue(failed.isCompletedExceptionally());
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.einsteinbot.sdk.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SessionRecord
+ */
+public class SessionRecordTest {
+
+  @Test
+  public void encodedRecordIsDecoded() {
+    SessionRecord decoded = SessionRecord
+        .decode(new SessionRecord("sessionId", 42, Optional.of("runtime;CRC")).encode());
+
+    assertEquals("sessionId", decoded.getSessionId());
+    assertEquals(42, decoded.getLastSequenceId());
+    assertEquals(Optional.of("runtime;CRC"), decoded.getRuntimeCRC());
+    assertEquals(Optional.empty(),
+        SessionRecord.decode(new SessionRecord("sessionId", 42, Optional.empty()).encode())
+            .getRuntimeCRC());
+  }
+
+  @Test
+  public void uuidSessionIdIsEncodedCompactly() {
+    String sessionId = "6e0c2f2b-6a3e-4f4e-9c2a-0b8e6d4f1a7c";
+    SessionRecord sessionRecord = new SessionRecord(sessionId, 1700000000000L,
+        Optional.of("crc"));
+
+    String encoded = sessionRecord.encode();
+    SessionRecord decoded = SessionRecord.decode(encoded);
+
+    assertEquals(32 + "crc".length(), encoded.length());
+    assertEquals(sessionId, decoded.getSessionId());
+    assertEquals(1700000000000L, decoded.getLastSequenceId());
+    assertEquals(Optional.of("crc"), decoded.getRuntimeCRC());
+    assertEquals("6E0C2F2B-6A3E-4F4E-9C2A-0B8E6D4F1A7C", SessionRecord
+        .decode(new SessionRecord("6E0C2F2B-6A3E-4F4E-9C2A-0B8E6D4F1A7C", 1, Optional.empty())
+            .encode()).getSessionId());
+  }
+
+  @Test
+  public void sessionIdCachedByEarlierVersionsIsDecoded() {
+    SessionRecord decoded = SessionRecord.decode("sessionId");
+
+    assertEquals("sessionId", decoded.getSessionId());
+    assertEquals(0, decoded.getLastSequenceId());
+    assertEquals(Optional.empty(), decoded.getRuntimeCRC());
+  }
+
+  @Test
+  public void sequenceIdDoesNotMakeSessionDifferent() {
+    SessionRecord sessionRecord = new SessionRecord("sessionId", 1, Optional.of("crc"));
+
+    assertTrue(sessionRecord.hasSameSession(new SessionRecord("sessionId", 2, Optional.of("crc"))));
+    assertFalse(sessionRecord.hasSameSession(new SessionRecord("sessionId", 1, Optional.empty())));
+  }
+}